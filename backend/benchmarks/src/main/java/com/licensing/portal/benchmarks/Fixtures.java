@@ -0,0 +1,96 @@
+package com.licensing.portal.benchmarks;
+
+import com.licensing.portal.model.Store;
+import com.licensing.portal.model.Task;
+import com.licensing.portal.model.User;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+// Synthetic entities and in-memory repository stand-ins shared by the benchmarks
+final class Fixtures {
+
+    static final String JWT_SECRET =
+            "5367566B59703373367639792F423F4528482B4D6251655468576D5A7134743777217A25432A462D4A614E635266556A586E3272357538782F413F4428472B4B";
+
+    // Same lifetimes as application.yml
+    static final int JWT_EXPIRATION = 86_400_000;
+
+    static final int STREAM_TOKEN_EXPIRATION = 60_000;
+
+    private Fixtures() {
+    }
+
+    // Repository proxy answering the named methods; any other call returns an empty
+    // List/Optional (or null), so only the code under test does real work
+    @SuppressWarnings("unchecked")
+    static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> type.getSimpleName() + "Stub";
+                };
+            }
+            if (List.class.isAssignableFrom(method.getReturnType())) {
+                return List.of();
+            }
+            if (method.getReturnType() == Optional.class) {
+                return Optional.empty();
+            }
+            return null;
+        });
+    }
+
+    static User user(long id, String username, String... roles) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setFullName("Пользователь " + id);
+        user.setEmail(username + "@example.com");
+        user.setPasswordHash("$2a$10$7EqJtq98hPqEX7fNZaFWoO5ZQ7ZgAfhXgq0Ulf1DFDhFiUl4bQmNu");
+        user.setIsActive(true);
+        user.setRoles(Set.of(roles));
+        return user;
+    }
+
+    static List<Task> tasks(int count) {
+        User manager = user(1, "manager", "MANAGER");
+        User admin = user(2, "admin", "ADMIN", "MANAGER");
+        LocalDateTime now = LocalDateTime.now();
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Store store = new Store();
+            store.setId((long) i);
+            store.setName("Магазин №" + i);
+
+            Task task = new Task();
+            task.setId((long) i);
+            task.setTitle("Продление алкогольной лицензии - Магазин №" + i);
+            task.setDescription("Автоматически созданная задача на продление лицензии.");
+            task.setLicenseType(i % 2 == 0 ? Task.LicenseType.ALCOHOL : Task.LicenseType.TOBACCO);
+            task.setActionType(Task.ActionType.RENEWAL);
+            task.setStatus(Task.TaskStatus.values()[i % Task.TaskStatus.values().length]);
+            task.setStore(store);
+            task.setAssignee(i % 3 == 0 ? admin : manager);
+            task.setCreatedBy(admin);
+            task.setDeadlineDate(LocalDate.now().plusDays(i % 90));
+            task.setCreatedAt(now.minusDays(i % 30));
+            task.setUpdatedAt(now);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+}
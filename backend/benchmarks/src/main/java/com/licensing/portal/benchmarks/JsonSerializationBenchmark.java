@@ -0,0 +1,98 @@
+package com.licensing.portal.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.licensing.portal.dto.PaymentResponse;
+import com.licensing.portal.dto.TaskResponse;
+import com.licensing.portal.model.Payment;
+import com.licensing.portal.model.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Response bodies of GET /tasks and GET /payments, with the ObjectMapper set up the way Spring Boot does it
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    private ObjectWriter writer;
+    private List<TaskResponse> tasks;
+    private List<PaymentResponse> payments;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        writer = objectMapper.writer();
+
+        tasks = new ArrayList<>(size);
+        payments = new ArrayList<>(size);
+        LocalDateTime now = LocalDateTime.now();
+        for (Task task : Fixtures.tasks(size)) {
+            TaskResponse response = new TaskResponse();
+            response.setId(task.getId());
+            response.setTitle(task.getTitle());
+            response.setDescription(task.getDescription());
+            response.setLicenseType(task.getLicenseType());
+            response.setActionType(task.getActionType());
+            response.setStatus(task.getStatus());
+            response.setStoreId(task.getStore().getId());
+            response.setStoreName(task.getStore().getName());
+            response.setAssigneeId(task.getAssignee().getId());
+            response.setAssigneeName(task.getAssignee().getFullName());
+            response.setCreatedById(task.getCreatedBy().getId());
+            response.setCreatedByName(task.getCreatedBy().getFullName());
+            response.setDeadlineDate(task.getDeadlineDate());
+            response.setCreatedAt(task.getCreatedAt());
+            response.setUpdatedAt(task.getUpdatedAt());
+            response.setDocumentCount(2);
+            response.setPaymentCount(1);
+            tasks.add(response);
+
+            PaymentResponse payment = new PaymentResponse();
+            payment.setId(task.getId());
+            payment.setTaskId(task.getId());
+            payment.setTaskTitle(task.getTitle());
+            payment.setAmount(new BigDecimal("65000.00"));
+            payment.setStatus(Payment.PaymentStatus.COMPLETED);
+            payment.setCreatedAt(now);
+            payment.setPaymentDate(now);
+            payment.setPaymentReference("ПП-" + task.getId());
+            payments.add(payment);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeTasks() throws Exception {
+        return writer.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public byte[] serializePayments() throws Exception {
+        return writer.writeValueAsBytes(payments);
+    }
+}
@@ -0,0 +1,95 @@
+package com.licensing.portal.benchmarks;
+
+import com.licensing.portal.model.User;
+import com.licensing.portal.repository.UserRepository;
+import com.licensing.portal.security.JwtAuthenticationFilter;
+import com.licensing.portal.security.JwtTokenProvider;
+import com.licensing.portal.security.UserDetailsCache;
+import com.licensing.portal.security.UserRevocationCache;
+import com.licensing.portal.service.CustomUserDetailsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtAuthenticationFilter for one request, from the Authorization header to the
+ * populated SecurityContext. The user lookup hits the real UserDetailsCache in front
+ * of an in-memory repository, so "database" mode measures the cache-hit path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    // false: principal loaded through UserDetailsService; true: built from token claims
+    @Param({"false", "true"})
+    private boolean claimsAuth;
+
+    private JwtAuthenticationFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        User manager = Fixtures.user(1, "manager", "MANAGER");
+        UserRepository userRepository = Fixtures.repository(UserRepository.class,
+                Map.of("findByUsername", args -> Optional.of(manager)));
+
+        CustomUserDetailsService userDetailsService = new CustomUserDetailsService();
+        ReflectionTestUtils.setField(userDetailsService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userDetailsService, "userDetailsCache",
+                new UserDetailsCache(1000, Duration.ofMinutes(1)));
+
+        JwtTokenProvider tokenProvider = new JwtTokenProvider(Fixtures.JWT_SECRET, Fixtures.JWT_EXPIRATION,
+                Fixtures.STREAM_TOKEN_EXPIRATION);
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "tokenProvider", tokenProvider);
+        ReflectionTestUtils.setField(filter, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(filter, "revocationCache",
+                new UserRevocationCache(new DefaultListableBeanFactory().getBeanProvider(UserRepository.class)));
+        ReflectionTestUtils.setField(filter, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(filter, "claimsAuthEnabled", claimsAuth);
+
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+                userDetailsService.loadUserByUsername("manager"), null, List.of());
+        authorization = "Bearer " + tokenProvider.generateToken(authentication, manager);
+    }
+
+    @Benchmark
+    public Authentication authenticate() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tasks");
+        request.setServletPath("/tasks");
+        request.addHeader("Authorization", authorization);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
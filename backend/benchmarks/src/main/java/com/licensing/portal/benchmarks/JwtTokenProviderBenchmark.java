@@ -0,0 +1,62 @@
+package com.licensing.portal.benchmarks;
+
+import com.licensing.portal.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Signature check and claims parsing done for every authenticated request
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider tokenProvider;
+    private String token;
+    private String claimsToken;
+    private String tamperedToken;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider(Fixtures.JWT_SECRET, Fixtures.JWT_EXPIRATION,
+                Fixtures.STREAM_TOKEN_EXPIRATION);
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+                new User("manager", "", List.of()), null, List.of());
+        token = tokenProvider.generateToken(authentication);
+        claimsToken = tokenProvider.generateToken(authentication, Fixtures.user(1, "manager", "MANAGER"));
+        tamperedToken = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+    }
+
+    @Benchmark
+    public Optional<Claims> parseValidToken() {
+        return tokenProvider.parseValidClaims(token);
+    }
+
+    @Benchmark
+    public Optional<Claims> parseTokenWithAuthorityClaims() {
+        return tokenProvider.parseValidClaims(claimsToken);
+    }
+
+    @Benchmark
+    public Optional<Claims> rejectTamperedToken() {
+        return tokenProvider.parseValidClaims(tamperedToken);
+    }
+}
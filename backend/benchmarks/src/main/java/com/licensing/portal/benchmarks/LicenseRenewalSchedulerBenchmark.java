@@ -0,0 +1,118 @@
+package com.licensing.portal.benchmarks;
+
+import com.licensing.portal.PortalApplication;
+import com.licensing.portal.dto.RenewalRunResult;
+import com.licensing.portal.service.LicenseRenewalScheduler;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full renewal run (candidate queries, batched task inserts, notifications,
+ * checkpoints) against embedded PostgreSQL with a synthetic store set. Every
+ * iteration starts from no tasks, so each one creates the same number of tasks.
+ * One run takes minutes at 50k stores, hence the short warmup and measurement.
+ * PostgreSQL refuses to start as root; run this as an ordinary user.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class LicenseRenewalSchedulerBenchmark {
+
+    @Param({"50000"})
+    private int storeCount;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private LicenseRenewalScheduler scheduler;
+
+    @Setup(Level.Trial)
+    public void startApplication() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        // Command-line arguments, so they win over application.yml
+        context = new SpringApplicationBuilder(PortalApplication.class).run(
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.com.licensing.portal=WARN",
+                "--logging.level.org.springframework.security=WARN",
+                "--server.port=0",
+                "--management.server.port=-1",
+                "--documents.storage.local.root=target/benchmark-uploads",
+                "--documents.temp-dir=target/benchmark-uploads/tmp",
+                // Keep background pollers from competing with the measured run
+                "--email.outbox.poll-interval=PT1H",
+                "--documents.processing.sweep-interval=PT1H");
+        DataSource dataSource = context.getBean(DataSource.class);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        scheduler = context.getBean(LicenseRenewalScheduler.class);
+
+        // ddl-auto creates the tables; the migrations add what the renewal run relies
+        // on beyond that (indexes, task counters). V5's ALTER only applies to databases
+        // that started with an identity column and is expected to fail here.
+        ResourceDatabasePopulator migrations = new ResourceDatabasePopulator(
+                new ClassPathResource("db/migration/V5__task_id_sequence_and_renewal_index.sql"),
+                new ClassPathResource("db/migration/V8__add_store_expiry_indexes.sql"),
+                new ClassPathResource("db/migration/V17__task_status_counters.sql"));
+        migrations.setContinueOnError(true);
+        migrations.execute(dataSource);
+
+        // Expiry dates spread over the next year: roughly a quarter of the stores
+        // need each license renewed within the scheduler's three-month window
+        jdbcTemplate.update("INSERT INTO stores (name, address, inn, is_active, has_restriction, "
+                + "alcohol_license_expiry, tobacco_license_expiry) "
+                + "SELECT 'Магазин ' || g, 'г. Москва, ул. Тестовая, д. ' || g, '9' || lpad(g::text, 11, '0'), "
+                + "TRUE, FALSE, CURRENT_DATE + (g % 365), CURRENT_DATE + ((g * 7) % 365) "
+                + "FROM generate_series(1, ?) g", storeCount);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Setup(Level.Iteration)
+    public void resetRenewalState() {
+        jdbcTemplate.update("DELETE FROM notifications");
+        jdbcTemplate.update("DELETE FROM tasks");
+        jdbcTemplate.update("DELETE FROM renewal_checkpoints");
+        jdbcTemplate.update("DELETE FROM task_status_counters");
+        jdbcTemplate.update("DELETE FROM scheduler_locks");
+    }
+
+    @Benchmark
+    public RenewalRunResult renewalRun() {
+        return scheduler.createRenewalTasks();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() throws IOException {
+        if (context != null) {
+            context.close();
+        }
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+}
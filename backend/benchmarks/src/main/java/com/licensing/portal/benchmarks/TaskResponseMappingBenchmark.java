@@ -0,0 +1,68 @@
+package com.licensing.portal.benchmarks;
+
+import com.licensing.portal.dto.TaskResponse;
+import com.licensing.portal.model.Task;
+import com.licensing.portal.repository.DocumentRepository;
+import com.licensing.portal.repository.PaymentRepository;
+import com.licensing.portal.service.TaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskService.convertToResponse (private; called through a method handle) over a
+ * list of fully populated tasks. The count repositories answer from memory, so the
+ * numbers cover mapping and the per-task withCounts call, not SQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskResponseMappingBenchmark {
+
+    @Param({"100", "1000"})
+    private int taskCount;
+
+    private List<Task> tasks;
+    private TaskService taskService;
+    private MethodHandle convertToResponse;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        tasks = Fixtures.tasks(taskCount);
+        taskService = new TaskService();
+        ReflectionTestUtils.setField(taskService, "documentRepository",
+                Fixtures.repository(DocumentRepository.class, Map.of()));
+        ReflectionTestUtils.setField(taskService, "paymentRepository",
+                Fixtures.repository(PaymentRepository.class, Map.of()));
+        convertToResponse = MethodHandles.privateLookupIn(TaskService.class, MethodHandles.lookup())
+                .findVirtual(TaskService.class, "convertToResponse",
+                        MethodType.methodType(TaskResponse.class, Task.class));
+    }
+
+    @Benchmark
+    public void convertAll(Blackhole blackhole) throws Throwable {
+        for (Task task : tasks) {
+            blackhole.consume((TaskResponse) convertToResponse.invoke(taskService, task));
+        }
+    }
+}
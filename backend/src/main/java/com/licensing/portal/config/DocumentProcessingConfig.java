@@ -0,0 +1,30 @@
+package com.licensing.portal.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class DocumentProcessingConfig {
+
+    // Small bounded pool for document post-processing. When the queue is full the
+    // submission is rejected rather than run on the uploading thread; the document
+    // stays UPLOADED and the pipeline's sweeper picks it up later.
+    @Bean(name = "documentProcessingExecutor")
+    public ThreadPoolTaskExecutor documentProcessingExecutor(
+            @Value("${documents.processing.threads:2}") int threads,
+            @Value("${documents.processing.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("document-processing-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
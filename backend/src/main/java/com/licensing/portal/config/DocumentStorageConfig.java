@@ -0,0 +1,62 @@
+package com.licensing.portal.config;
+
+import com.licensing.portal.service.DocumentStorage;
+import com.licensing.portal.service.impl.LocalDocumentStorage;
+import com.licensing.portal.service.impl.S3DocumentStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.net.URI;
+import java.nio.file.Paths;
+
+// Selects the document storage backend with documents.storage.type
+@Configuration
+public class DocumentStorageConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "documents.storage.type", havingValue = "local", matchIfMissing = true)
+    public DocumentStorage localDocumentStorage(@Value("${documents.storage.local.root:uploads}") String root) {
+        return new LocalDocumentStorage(Paths.get(root));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "documents.storage.type", havingValue = "s3")
+    public DocumentStorage s3DocumentStorage(
+            @Value("${documents.storage.s3.bucket}") String bucket,
+            @Value("${documents.storage.s3.region:us-east-1}") String region,
+            @Value("${documents.storage.s3.endpoint:}") String endpoint,
+            @Value("${documents.storage.s3.access-key:}") String accessKey,
+            @Value("${documents.storage.s3.secret-key:}") String secretKey) {
+        AwsCredentialsProvider credentials = StringUtils.hasText(accessKey)
+                ? StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey))
+                : DefaultCredentialsProvider.create();
+        // Path-style addressing so MinIO and other S3-compatible servers work
+        S3Configuration s3Configuration = S3Configuration.builder().pathStyleAccessEnabled(true).build();
+
+        S3ClientBuilder client = S3Client.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(s3Configuration);
+        S3Presigner.Builder presigner = S3Presigner.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(s3Configuration);
+        if (StringUtils.hasText(endpoint)) {
+            client.endpointOverride(URI.create(endpoint));
+            presigner.endpointOverride(URI.create(endpoint));
+        }
+        return new S3DocumentStorage(client.build(), presigner.build(), bucket);
+    }
+}
@@ -0,0 +1,40 @@
+package com.licensing.portal.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Upload size limits: documents.max-size, overridden per file extension by
+// documents.max-size-by-type.<extension>
+@Component
+@ConfigurationProperties(prefix = "documents")
+public class DocumentUploadProperties {
+
+    private DataSize maxSize = DataSize.ofMegabytes(50);
+
+    private Map<String, DataSize> maxSizeByType = new HashMap<>();
+
+    public long maxBytesFor(String extension) {
+        DataSize limit = extension != null ? maxSizeByType.get(extension.toLowerCase()) : null;
+        return (limit != null ? limit : maxSize).toBytes();
+    }
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Map<String, DataSize> getMaxSizeByType() {
+        return maxSizeByType;
+    }
+
+    public void setMaxSizeByType(Map<String, DataSize> maxSizeByType) {
+        this.maxSizeByType = maxSizeByType;
+    }
+}
@@ -0,0 +1,27 @@
+package com.licensing.portal.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class EventStreamConfig {
+
+    // Writes pushed events to SSE connections so a slow client never blocks the
+    // request or job that published the event
+    @Bean(name = "eventStreamExecutor")
+    public ThreadPoolTaskExecutor eventStreamExecutor(@Value("${sse.threads:2}") int threads,
+            @Value("${sse.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("sse-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
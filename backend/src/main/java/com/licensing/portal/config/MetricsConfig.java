@@ -0,0 +1,38 @@
+package com.licensing.portal.config;
+
+import com.licensing.portal.service.DocumentProcessingPipeline;
+import com.licensing.portal.service.EventStreamService;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+public class MetricsConfig {
+
+    // Makes @Timed on service classes record a timer per public method
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    // Publishes the in-memory stats that /debug/* already shows. Executors, the
+    // Hikari pool, Hibernate and HTTP requests are bound by Spring Boot itself.
+    @Bean
+    public MeterBinder pipelineMetrics(DocumentProcessingPipeline pipeline, EventStreamService eventStreamService) {
+        return registry -> {
+            for (String outcome : List.of("submitted", "rejected", "processed", "quarantined", "retried", "failed")) {
+                FunctionCounter.builder("documents.processing", pipeline, p -> p.stats().get(outcome))
+                        .tag("outcome", outcome)
+                        .register(registry);
+            }
+            Gauge.builder("sse.connections", eventStreamService, EventStreamService::connectionCount)
+                    .register(registry);
+        };
+    }
+}
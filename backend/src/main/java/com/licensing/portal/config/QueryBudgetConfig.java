@@ -0,0 +1,39 @@
+package com.licensing.portal.config;
+
+import com.licensing.portal.monitoring.JdbcTimingSessionListener;
+import com.licensing.portal.monitoring.QueryBudgetFilter;
+import com.licensing.portal.monitoring.QueryCountingStatementInspector;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+@Configuration
+public class QueryBudgetConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCountingHibernateCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCountingStatementInspector());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, JdbcTimingSessionListener.class.getName());
+        };
+    }
+
+    // Ahead of Spring Security, so the user lookup during authentication is counted too
+    @Bean
+    public FilterRegistrationBean<QueryBudgetFilter> queryBudgetFilter(MeterRegistry meterRegistry,
+            @Value("${query-budget.max-statements:20}") int maxStatements,
+            @Value("${query-budget.max-jdbc-time:PT1S}") Duration maxJdbcTime,
+            @Value("${query-budget.fail-on-exceed:false}") boolean failOnExceed) {
+        FilterRegistrationBean<QueryBudgetFilter> registration = new FilterRegistrationBean<>(
+                new QueryBudgetFilter(meterRegistry, maxStatements, maxJdbcTime, failOnExceed));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -34,11 +34,12 @@ public class AuthController {
                         loginRequest.getPassword()));
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = tokenProvider.generateToken(authentication);
 
         User user = userRepository.findByUsername(loginRequest.getUsername())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
+        String jwt = tokenProvider.generateToken(authentication, user);
+
         return ResponseEntity.ok(new LoginResponse(
                 jwt,
                 user.getId(),
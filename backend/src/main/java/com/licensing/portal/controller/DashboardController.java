@@ -0,0 +1,31 @@
+package com.licensing.portal.controller;
+
+import com.licensing.portal.dto.DashboardSummaryResponse;
+import com.licensing.portal.dto.ManagerWorkloadResponse;
+import com.licensing.portal.service.DashboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/dashboard")
+public class DashboardController {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @GetMapping("/workload")
+    public ResponseEntity<List<ManagerWorkloadResponse>> getWorkload(Authentication authentication) {
+        return ResponseEntity.ok(dashboardService.getWorkload(authentication.getName()));
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<DashboardSummaryResponse> getSummary(Authentication authentication) {
+        return ResponseEntity.ok(dashboardService.getSummary(authentication.getName()));
+    }
+}
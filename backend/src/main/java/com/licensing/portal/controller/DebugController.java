@@ -1,17 +1,27 @@
 package com.licensing.portal.controller;
 
+import com.licensing.portal.dto.RenewalRunResult;
 import com.licensing.portal.model.Task;
 import com.licensing.portal.model.User;
 import com.licensing.portal.repository.TaskRepository;
 import com.licensing.portal.repository.UserRepository;
+import com.licensing.portal.security.UserDetailsCache;
+import com.licensing.portal.service.DocumentProcessingPipeline;
+import com.licensing.portal.service.EmailDispatcher;
 import com.licensing.portal.service.LicenseRenewalScheduler;
+import com.licensing.portal.service.TaskStatusCounterReconciler;
 import org.springframework.beans.factory.annotation.Autowired;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/debug")
@@ -26,10 +36,57 @@ public class DebugController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private DocumentProcessingPipeline documentProcessingPipeline;
+
+    @Autowired
+    private EmailDispatcher emailDispatcher;
+
+    @Autowired
+    private TaskStatusCounterReconciler taskStatusCounterReconciler;
+
     @PostMapping("/trigger-renewal-tasks")
     public ResponseEntity<String> triggerRenewalTasks() {
-        licenseRenewalScheduler.createRenewalTasks();
-        return ResponseEntity.ok("License renewal task creation triggered successfully");
+        RenewalRunResult result = licenseRenewalScheduler.createRenewalTasks();
+        if (!result.isLockAcquired()) {
+            return ResponseEntity.ok("License renewal task creation is already running");
+        }
+        return ResponseEntity.ok("License renewal task creation completed: " + result.getTasksCreated()
+                + " tasks created for " + result.getCandidates() + " candidates in " + result.getDurationMs() + " ms ("
+                + result.getPartitions() + " partitions, " + result.getPartitionsSkipped() + " skipped, "
+                + result.getPartitionsFailed() + " failed)"
+                + (result.isLockLost() ? "; stopped early, the lock was taken over by another node" : ""));
+    }
+
+    @GetMapping("/user-cache")
+    public ResponseEntity<Map<String, Long>> userCacheStats() {
+        CacheStats stats = userDetailsCache.stats();
+        Map<String, Long> response = new LinkedHashMap<>();
+        response.put("size", userDetailsCache.size());
+        response.put("hits", stats.hitCount());
+        response.put("misses", stats.missCount());
+        response.put("evictions", stats.evictionCount());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/document-pipeline")
+    public ResponseEntity<Map<String, Long>> documentPipelineStats() {
+        return ResponseEntity.ok(documentProcessingPipeline.stats());
+    }
+
+    @GetMapping("/email-outbox")
+    public ResponseEntity<Map<String, Long>> emailOutboxStats() {
+        return ResponseEntity.ok(emailDispatcher.stats());
+    }
+
+    // Locks task_status_counters, blocking every task write while it runs
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/reconcile-task-counters")
+    public ResponseEntity<Map<String, Long>> reconcileTaskCounters() {
+        return ResponseEntity.ok(taskStatusCounterReconciler.reconcile());
     }
 
     @PostMapping("/assign-tasks")
@@ -66,6 +123,8 @@ public class DebugController {
             taskRepository.save(task);
             count++;
         }
+        // Saved outside TaskService, so the materialized counters are recounted
+        taskStatusCounterReconciler.reconcile();
 
         return ResponseEntity.ok("Assigned and randomized " + count + " tasks.");
     }
@@ -2,20 +2,28 @@ package com.licensing.portal.controller;
 
 import com.licensing.portal.model.Document;
 import com.licensing.portal.service.DocumentService;
+import com.licensing.portal.service.DocumentStorage;
+import com.licensing.portal.service.FileDownloadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.net.MalformedURLException;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 public class DocumentController {
@@ -23,6 +31,19 @@ public class DocumentController {
     @Autowired
     private DocumentService documentService;
 
+    @Autowired
+    private FileDownloadService fileDownloadService;
+
+    @Autowired
+    private DocumentStorage documentStorage;
+
+    // Send clients straight to the storage backend when it can sign download URLs
+    @Value("${documents.storage.presigned-downloads:false}")
+    private boolean presignedDownloads;
+
+    @Value("${documents.storage.presigned-ttl:PT5M}")
+    private Duration presignedTtl;
+
     @PostMapping("/tasks/{taskId}/documents")
     public ResponseEntity<Document> uploadDocument(@PathVariable Long taskId,
             @RequestParam("file") MultipartFile file,
@@ -32,6 +53,20 @@ public class DocumentController {
         return ResponseEntity.ok(document);
     }
 
+    // Raw-body upload: the request stream goes straight to storage without multipart
+    // buffering. The file name is sent URL-encoded in X-File-Name.
+    @PostMapping("/tasks/{taskId}/documents/stream")
+    public ResponseEntity<Document> uploadDocumentStream(@PathVariable Long taskId,
+            @RequestHeader("X-File-Name") String encodedFileName,
+            HttpServletRequest request,
+            Authentication authentication) throws IOException {
+        String username = authentication.getName();
+        String fileName = URLDecoder.decode(encodedFileName, StandardCharsets.UTF_8);
+        Document document = documentService.uploadDocument(taskId, request.getInputStream(), fileName,
+                request.getContentType(), request.getContentLengthLong(), username);
+        return ResponseEntity.ok(document);
+    }
+
     @GetMapping("/tasks/{taskId}/documents")
     public ResponseEntity<List<Document>> getDocumentsByTaskId(@PathVariable Long taskId) {
         List<Document> documents = documentService.getDocumentsByTaskId(taskId);
@@ -45,23 +80,59 @@ public class DocumentController {
     }
 
     @GetMapping("/documents/{documentId}/download")
-    public ResponseEntity<Resource> downloadDocument(@PathVariable Long documentId) {
+    public void downloadDocument(@PathVariable Long documentId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
         Document document = documentService.getDocument(documentId);
-        try {
-            Path filePath = Paths.get(document.getFilePath());
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (resource.exists()) {
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType("application/octet-stream"))
-                        .header(HttpHeaders.CONTENT_DISPOSITION,
-                                "attachment; filename=\"" + document.getFileName() + "\"")
-                        .body(resource);
-            } else {
-                throw new RuntimeException("File not found " + document.getFileName());
+        // Not scanned yet, quarantined or failed: the bytes must not be handed out
+        if (document.getStatus() == null || !document.getStatus().isDownloadable()) {
+            response.sendError(HttpServletResponse.SC_CONFLICT,
+                    "Document " + documentId + " is not available for download (" + document.getStatus() + ")");
+            return;
+        }
+        String key = document.getFilePath();
+
+        String contentType = document.getContentType();
+        if (contentType == null) {
+            // Documents uploaded before the content type was stored
+            Path localFile = documentStorage.localFile(key).orElse(null);
+            contentType = localFile != null ? Files.probeContentType(localFile) : null;
+        }
+        if (contentType == null) {
+            contentType = MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        }
+
+        if (presignedDownloads) {
+            Optional<URI> url = documentStorage.presignedDownloadUrl(key, document.getFileName(), contentType,
+                    presignedTtl);
+            if (url.isPresent()) {
+                response.sendRedirect(url.get().toString());
+                return;
             }
-        } catch (MalformedURLException ex) {
-            throw new RuntimeException("File not found " + document.getFileName(), ex);
         }
+
+        String etag = document.getSha256() != null
+                ? "\"" + document.getSha256() + "\""
+                : "\"" + document.getId() + "-" + document.getFileSize() + "\"";
+        long length = document.getFileSize() != null ? document.getFileSize() : -1;
+        long lastModified = document.getUploadDate() != null
+                ? document.getUploadDate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : -1;
+        fileDownloadService.serve(key, length, lastModified, contentType, document.getFileName(), etag,
+                request, response);
+    }
+
+    // First-page preview generated by the processing pipeline
+    @GetMapping("/documents/{documentId}/preview")
+    public void previewDocument(@PathVariable Long documentId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Document document = documentService.getDocument(documentId);
+        if (document.getPreviewKey() == null) {
+            throw new RuntimeException("Preview not available for document " + documentId);
+        }
+        String etag = "\"preview-" + document.getId() + "-" + document.getFileSize() + "\"";
+        fileDownloadService.serve(document.getPreviewKey(), -1, -1, MediaType.IMAGE_PNG_VALUE,
+                document.getFileName() + ".png", etag, request, response);
     }
 }
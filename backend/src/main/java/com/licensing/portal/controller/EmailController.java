@@ -25,8 +25,8 @@ public class EmailController {
 
     @PostMapping("/send")
     public ResponseEntity<String> sendEmail(@RequestBody EmailRequest request) {
-        emailService.sendEmail(request.getTo(), request.getSubject(), request.getText());
-        return ResponseEntity.ok("Email sent successfully");
+        Long id = emailService.queueEmail(request.getTo(), request.getSubject(), request.getText());
+        return ResponseEntity.accepted().body("Email queued for delivery (id " + id + ")");
     }
 
     @PostMapping(value = "/send-multipart", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -35,8 +35,8 @@ public class EmailController {
             @RequestParam("subject") String subject,
             @RequestParam("text") String text,
             @RequestParam(value = "files", required = false) MultipartFile[] files) {
-        emailService.sendEmailWithAttachments(to, subject, text, files);
-        return ResponseEntity.ok("Email with attachments sent successfully");
+        Long id = emailService.queueEmailWithAttachments(to, subject, text, files);
+        return ResponseEntity.accepted().body("Email with attachments queued for delivery (id " + id + ")");
     }
 
     @Data
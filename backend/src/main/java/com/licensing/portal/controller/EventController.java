@@ -0,0 +1,54 @@
+package com.licensing.portal.controller;
+
+import com.licensing.portal.model.User;
+import com.licensing.portal.repository.UserRepository;
+import com.licensing.portal.security.JwtTokenProvider;
+import com.licensing.portal.service.EventStreamService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+@RestController
+public class EventController {
+
+    @Autowired
+    private EventStreamService eventStreamService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    // Short-lived token to pass as access_token when opening the stream; the login
+    // token itself is never accepted in the URL
+    @PostMapping("/events/token")
+    public ResponseEntity<Map<String, String>> streamToken(Authentication authentication) {
+        return ResponseEntity.ok(Map.of("token", tokenProvider.generateStreamToken(authentication.getName())));
+    }
+
+    // One long-lived stream per tab: notification-count, task-changed and resync events.
+    // EventSource sends Last-Event-ID by itself when it reconnects; a stream reopened
+    // with a fresh token passes it as the lastEventId parameter instead.
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam,
+            Authentication authentication) {
+        if (lastEventId == null) {
+            lastEventId = lastEventIdParam;
+        }
+        User user = userRepository.findByUsername(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        boolean admin = user.getRoles() != null && user.getRoles().contains("ADMIN");
+        return eventStreamService.subscribe(user.getId(), admin, lastEventId);
+    }
+}
@@ -1,5 +1,9 @@
 package com.licensing.portal.controller;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -12,11 +16,17 @@ import java.util.Map;
 @RequestMapping("/health")
 public class HealthController {
 
+    @Autowired
+    private HealthEndpoint healthEndpoint;
+
+    // Same status as /actuator/health (database, disk space, mail), on the public port
     @GetMapping
     public ResponseEntity<Map<String, String>> health() {
+        Status status = healthEndpoint.health().getStatus();
         Map<String, String> response = new HashMap<>();
-        response.put("status", "UP");
+        response.put("status", status.getCode());
         response.put("service", "Licensing Portal API");
-        return ResponseEntity.ok(response);
+        HttpStatus httpStatus = Status.UP.equals(status) ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(httpStatus).body(response);
     }
 }
@@ -0,0 +1,59 @@
+package com.licensing.portal.controller;
+
+import com.licensing.portal.dto.NotificationResponse;
+import com.licensing.portal.model.User;
+import com.licensing.portal.repository.UserRepository;
+import com.licensing.portal.security.UserDetailsCache;
+import com.licensing.portal.service.NotificationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/notifications")
+public class NotificationController {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @GetMapping
+    public ResponseEntity<List<NotificationResponse>> getNotifications(
+            @RequestParam(defaultValue = "false") boolean unreadOnly,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
+        return ResponseEntity.ok(notificationService.getNotifications(currentUserId(authentication), unreadOnly, size));
+    }
+
+    @GetMapping("/unread-count")
+    public ResponseEntity<Map<String, Long>> getUnreadCount(Authentication authentication) {
+        return ResponseEntity.ok(Map.of("unread", notificationService.getUnreadCount(currentUserId(authentication))));
+    }
+
+    @PutMapping("/{id}/read")
+    public ResponseEntity<Void> markRead(@PathVariable Long id, Authentication authentication) {
+        notificationService.markRead(id, currentUserId(authentication));
+        return ResponseEntity.ok().build();
+    }
+
+    @PutMapping("/read-all")
+    public ResponseEntity<Map<String, Integer>> markAllRead(Authentication authentication) {
+        return ResponseEntity.ok(Map.of("updated", notificationService.markAllRead(currentUserId(authentication))));
+    }
+
+    // Cached, so the badge endpoint stays off the database
+    private Long currentUserId(Authentication authentication) {
+        return userDetailsCache.getUserId(authentication.getName(), username -> userRepository.findByUsername(username)
+                .map(User::getId)
+                .orElseThrow(() -> new RuntimeException("User not found")));
+    }
+}
@@ -0,0 +1,30 @@
+package com.licensing.portal.controller;
+
+import com.licensing.portal.dto.SearchResponse;
+import com.licensing.portal.service.SearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Set;
+
+@RestController
+public class SearchController {
+
+    @Autowired
+    private SearchService searchService;
+
+    // q uses web-search syntax: "exact phrase", -excluded, a or b
+    @GetMapping("/search")
+    public ResponseEntity<SearchResponse> search(@RequestParam("q") String query,
+            @RequestParam(required = false) Set<String> types,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
+        String username = authentication.getName();
+        return ResponseEntity.ok(searchService.search(username, query, types, page, size));
+    }
+}
@@ -1,11 +1,16 @@
 package com.licensing.portal.controller;
 
 import com.licensing.portal.model.Store;
+import com.licensing.portal.model.Task;
 import com.licensing.portal.repository.StoreRepository;
+import com.licensing.portal.service.StoreExpiryIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @RestController
@@ -15,11 +20,26 @@ public class StoreController {
     @Autowired
     private StoreRepository storeRepository;
 
+    @Autowired
+    private StoreExpiryIndex storeExpiryIndex;
+
     @GetMapping
     public ResponseEntity<List<Store>> getAllStores() {
         return ResponseEntity.ok(storeRepository.findAll());
     }
 
+    // Active stores with a license expiring within the given number of days,
+    // resolved from the in-memory expiry index plus a primary-key lookup
+    @GetMapping("/expiring")
+    public ResponseEntity<List<Store>> getExpiringStores(@RequestParam(defaultValue = "90") int days,
+            @RequestParam(required = false) Task.LicenseType licenseType) {
+        LocalDate upTo = LocalDate.now().plusDays(days);
+        Collection<Long> ids = licenseType != null
+                ? storeExpiryIndex.findExpiring(licenseType, upTo)
+                : storeExpiryIndex.findExpiringStoreIds(upTo);
+        return ResponseEntity.ok(ids.isEmpty() ? new ArrayList<>() : storeRepository.findAllById(ids));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Store> getStoreById(@PathVariable Long id) {
         Store store = storeRepository.findById(id)
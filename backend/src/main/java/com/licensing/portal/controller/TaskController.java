@@ -1,5 +1,7 @@
 package com.licensing.portal.controller;
 
+import com.licensing.portal.dto.TaskFilter;
+import com.licensing.portal.dto.TaskPageResponse;
 import com.licensing.portal.dto.TaskRequest;
 import com.licensing.portal.dto.TaskResponse;
 import com.licensing.portal.model.Task;
@@ -24,6 +26,15 @@ public class TaskController {
         return ResponseEntity.ok(taskService.getAllTasks(username));
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<TaskPageResponse> getTaskPage(@ModelAttribute TaskFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
+        String username = authentication.getName();
+        return ResponseEntity.ok(taskService.getTaskPage(username, filter, cursor, size));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<TaskResponse> getTaskById(@PathVariable Long id) {
         return ResponseEntity.ok(taskService.getTaskById(id));
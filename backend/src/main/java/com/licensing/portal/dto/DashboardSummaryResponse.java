@@ -0,0 +1,23 @@
+package com.licensing.portal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardSummaryResponse {
+    private Long totalTasks;
+    private Long overdueTasks;
+    private Map<String, Long> tasksByStatus;
+    private Map<String, Long> tasksByLicenseType;
+    private Map<String, Long> paymentsByStatus;
+    private Map<String, BigDecimal> paymentAmountsByStatus;
+    // When the numbers were computed; they may be up to dashboard.cache-ttl old
+    private LocalDateTime generatedAt;
+}
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -12,4 +14,8 @@ public class ManagerWorkloadResponse {
     private String username;
     private String fullName;
     private Long taskCount;
+    // Task status -> count
+    private Map<String, Long> tasksByStatus;
+    // Open tasks past their deadline
+    private Long overdueCount;
 }
@@ -0,0 +1,74 @@
+package com.licensing.portal.dto;
+
+import com.licensing.portal.model.Notification;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class NotificationResponse {
+    private Long id;
+    private Long taskId;
+    private String message;
+    private Notification.NotificationType type;
+    private Boolean isRead;
+    private LocalDateTime createdAt;
+
+    public NotificationResponse(Long id, Long taskId, String message, Notification.NotificationType type,
+            Boolean isRead, LocalDateTime createdAt) {
+        this.id = id;
+        this.taskId = taskId;
+        this.message = message;
+        this.type = type;
+        this.isRead = isRead;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(Long taskId) {
+        this.taskId = taskId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public Notification.NotificationType getType() {
+        return type;
+    }
+
+    public void setType(Notification.NotificationType type) {
+        this.type = type;
+    }
+
+    public Boolean getIsRead() {
+        return isRead;
+    }
+
+    public void setIsRead(Boolean isRead) {
+        this.isRead = isRead;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,97 @@
+package com.licensing.portal.dto;
+
+import lombok.Data;
+
+@Data
+public class RenewalRunResult {
+    private int partitions;
+    private int partitionsSkipped;
+    private int partitionsFailed;
+    private int candidates;
+    private int tasksCreated;
+    private long durationMs;
+    private boolean lockAcquired = true;
+    // Another node took the lock over mid-run; the remaining partitions were not processed
+    private boolean lockLost;
+
+    public RenewalRunResult(int partitions, int partitionsSkipped, int partitionsFailed,
+            int candidates, int tasksCreated, long durationMs) {
+        this.partitions = partitions;
+        this.partitionsSkipped = partitionsSkipped;
+        this.partitionsFailed = partitionsFailed;
+        this.candidates = candidates;
+        this.tasksCreated = tasksCreated;
+        this.durationMs = durationMs;
+    }
+
+    // Result for a run that did nothing because another run holds the lock
+    public static RenewalRunResult notAcquired() {
+        RenewalRunResult result = new RenewalRunResult(0, 0, 0, 0, 0, 0);
+        result.setLockAcquired(false);
+        return result;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(int partitions) {
+        this.partitions = partitions;
+    }
+
+    public int getPartitionsSkipped() {
+        return partitionsSkipped;
+    }
+
+    public void setPartitionsSkipped(int partitionsSkipped) {
+        this.partitionsSkipped = partitionsSkipped;
+    }
+
+    public int getPartitionsFailed() {
+        return partitionsFailed;
+    }
+
+    public void setPartitionsFailed(int partitionsFailed) {
+        this.partitionsFailed = partitionsFailed;
+    }
+
+    public int getCandidates() {
+        return candidates;
+    }
+
+    public void setCandidates(int candidates) {
+        this.candidates = candidates;
+    }
+
+    public int getTasksCreated() {
+        return tasksCreated;
+    }
+
+    public void setTasksCreated(int tasksCreated) {
+        this.tasksCreated = tasksCreated;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public boolean isLockAcquired() {
+        return lockAcquired;
+    }
+
+    public void setLockAcquired(boolean lockAcquired) {
+        this.lockAcquired = lockAcquired;
+    }
+
+    public boolean isLockLost() {
+        return lockLost;
+    }
+
+    public void setLockLost(boolean lockLost) {
+        this.lockLost = lockLost;
+    }
+}
@@ -0,0 +1,62 @@
+package com.licensing.portal.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class SearchResponse {
+    private String query;
+    private List<SearchResult> items;
+    private int page;
+    private int size;
+    private boolean hasMore;
+
+    public SearchResponse(String query, List<SearchResult> items, int page, int size, boolean hasMore) {
+        this.query = query;
+        this.items = items;
+        this.page = page;
+        this.size = size;
+        this.hasMore = hasMore;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    public List<SearchResult> getItems() {
+        return items;
+    }
+
+    public void setItems(List<SearchResult> items) {
+        this.items = items;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
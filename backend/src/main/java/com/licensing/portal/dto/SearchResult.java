@@ -0,0 +1,73 @@
+package com.licensing.portal.dto;
+
+import lombok.Data;
+
+@Data
+public class SearchResult {
+    // TASK, STORE or DOCUMENT
+    private String type;
+    private Long id;
+    // Task the hit belongs to (documents) or is (tasks)
+    private Long taskId;
+    private String title;
+    // Matching fragments with the terms wrapped in <mark>
+    private String snippet;
+    private double rank;
+
+    public SearchResult(String type, Long id, Long taskId, String title, String snippet, double rank) {
+        this.type = type;
+        this.id = id;
+        this.taskId = taskId;
+        this.title = title;
+        this.snippet = snippet;
+        this.rank = rank;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(Long taskId) {
+        this.taskId = taskId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+
+    public void setSnippet(String snippet) {
+        this.snippet = snippet;
+    }
+
+    public double getRank() {
+        return rank;
+    }
+
+    public void setRank(double rank) {
+        this.rank = rank;
+    }
+}
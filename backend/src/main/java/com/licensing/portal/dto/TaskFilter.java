@@ -0,0 +1,78 @@
+package com.licensing.portal.dto;
+
+import com.licensing.portal.model.Task;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+@Data
+public class TaskFilter {
+    private Task.TaskStatus status;
+    private Task.LicenseType licenseType;
+    private Task.ActionType actionType;
+    private Long storeId;
+    private Long assigneeId;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate deadlineFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate deadlineTo;
+
+    public Task.TaskStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Task.TaskStatus status) {
+        this.status = status;
+    }
+
+    public Task.LicenseType getLicenseType() {
+        return licenseType;
+    }
+
+    public void setLicenseType(Task.LicenseType licenseType) {
+        this.licenseType = licenseType;
+    }
+
+    public Task.ActionType getActionType() {
+        return actionType;
+    }
+
+    public void setActionType(Task.ActionType actionType) {
+        this.actionType = actionType;
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public void setStoreId(Long storeId) {
+        this.storeId = storeId;
+    }
+
+    public Long getAssigneeId() {
+        return assigneeId;
+    }
+
+    public void setAssigneeId(Long assigneeId) {
+        this.assigneeId = assigneeId;
+    }
+
+    public LocalDate getDeadlineFrom() {
+        return deadlineFrom;
+    }
+
+    public void setDeadlineFrom(LocalDate deadlineFrom) {
+        this.deadlineFrom = deadlineFrom;
+    }
+
+    public LocalDate getDeadlineTo() {
+        return deadlineTo;
+    }
+
+    public void setDeadlineTo(LocalDate deadlineTo) {
+        this.deadlineTo = deadlineTo;
+    }
+}
@@ -0,0 +1,52 @@
+package com.licensing.portal.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class TaskPageResponse {
+    private List<TaskResponse> items;
+    private String nextCursor;
+    private boolean hasMore;
+    private int size;
+
+    public TaskPageResponse(List<TaskResponse> items, String nextCursor, boolean hasMore, int size) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+        this.size = size;
+    }
+
+    public List<TaskResponse> getItems() {
+        return items;
+    }
+
+    public void setItems(List<TaskResponse> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
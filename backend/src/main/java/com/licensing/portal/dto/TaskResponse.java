@@ -26,6 +26,35 @@ public class TaskResponse {
     private int documentCount;
     private int paymentCount;
 
+    public TaskResponse() {
+    }
+
+    // Used by the JPQL constructor expressions in TaskRepository
+    public TaskResponse(Long id, String title, String description,
+            Task.LicenseType licenseType, Task.ActionType actionType,
+            Task.TaskStatus status, String statusReason,
+            Long storeId, String storeName,
+            Long assigneeId, String assigneeName,
+            Long createdById, String createdByName,
+            LocalDate deadlineDate, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.licenseType = licenseType;
+        this.actionType = actionType;
+        this.status = status != null ? status : Task.TaskStatus.ASSIGNED;
+        this.statusReason = statusReason;
+        this.storeId = storeId;
+        this.storeName = storeName;
+        this.assigneeId = assigneeId;
+        this.assigneeName = assigneeName;
+        this.createdById = createdById;
+        this.createdByName = createdByName;
+        this.deadlineDate = deadlineDate;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
     public Long getId() {
         return id;
     }
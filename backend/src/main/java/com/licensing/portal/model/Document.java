@@ -1,5 +1,6 @@
 package com.licensing.portal.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -35,10 +36,36 @@ public class Document {
     @Column(name = "file_size")
     private Long fileSize;
 
+    @Column(name = "content_type", length = 255)
+    private String contentType;
+
+    @Column(name = "sha256", length = 64)
+    private String sha256;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
     private DocumentStatus status = DocumentStatus.UPLOADED;
 
+    // Post-processing state, see DocumentProcessingPipeline
+    @Column(name = "processing_attempts", nullable = false)
+    private int processingAttempts;
+
+    @Column(name = "processing_started_at")
+    private LocalDateTime processingStartedAt;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "processing_error", length = 1000)
+    private String processingError;
+
+    @Column(name = "preview_key", length = 500)
+    private String previewKey;
+
+    @JsonIgnore
+    @Column(name = "extracted_text", columnDefinition = "TEXT")
+    private String extractedText;
+
     @CreationTimestamp
     @Column(name = "upload_date", updatable = false)
     private LocalDateTime uploadDate;
@@ -47,8 +74,15 @@ public class Document {
     @JoinColumn(name = "uploaded_by_id")
     private User uploadedBy;
 
+    // UPLOADED -> PROCESSING -> PROCESSED | QUARANTINED | FAILED, then reviewers
+    // set VERIFIED or REJECTED
     public enum DocumentStatus {
-        UPLOADED, VERIFIED, REJECTED
+        UPLOADED, PROCESSING, PROCESSED, QUARANTINED, FAILED, VERIFIED, REJECTED;
+
+        // The content went through the scan and came out clean
+        public boolean isDownloadable() {
+            return this == PROCESSED || this == VERIFIED || this == REJECTED;
+        }
     }
 
     public Long getId() {
@@ -99,6 +133,22 @@ public class Document {
         this.fileSize = fileSize;
     }
 
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
     public DocumentStatus getStatus() {
         return status;
     }
@@ -107,6 +157,54 @@ public class Document {
         this.status = status;
     }
 
+    public int getProcessingAttempts() {
+        return processingAttempts;
+    }
+
+    public void setProcessingAttempts(int processingAttempts) {
+        this.processingAttempts = processingAttempts;
+    }
+
+    public LocalDateTime getProcessingStartedAt() {
+        return processingStartedAt;
+    }
+
+    public void setProcessingStartedAt(LocalDateTime processingStartedAt) {
+        this.processingStartedAt = processingStartedAt;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getProcessingError() {
+        return processingError;
+    }
+
+    public void setProcessingError(String processingError) {
+        this.processingError = processingError;
+    }
+
+    public String getPreviewKey() {
+        return previewKey;
+    }
+
+    public void setPreviewKey(String previewKey) {
+        this.previewKey = previewKey;
+    }
+
+    public String getExtractedText() {
+        return extractedText;
+    }
+
+    public void setExtractedText(String extractedText) {
+        this.extractedText = extractedText;
+    }
+
     public LocalDateTime getUploadDate() {
         return uploadDate;
     }
@@ -15,8 +15,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Notification {
 
+    // Pooled sequence (see Task) so bulk notification inserts are batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notifications_seq")
+    @SequenceGenerator(name = "notifications_seq", sequenceName = "notifications_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -41,6 +43,10 @@ public class Notification {
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
+    // Set once the notification went out in an email digest
+    @Column(name = "digested_at")
+    private LocalDateTime digestedAt;
+
     public enum NotificationType {
         DEADLINE_WARNING, TASK_ASSIGNED, DOCUMENT_UPLOADED,
         PAYMENT_COMPLETED, STATUS_CHANGED, GENERAL
@@ -102,4 +108,11 @@ public class Notification {
         this.createdAt = createdAt;
     }
 
+    public LocalDateTime getDigestedAt() {
+        return digestedAt;
+    }
+
+    public void setDigestedAt(LocalDateTime digestedAt) {
+        this.digestedAt = digestedAt;
+    }
 }
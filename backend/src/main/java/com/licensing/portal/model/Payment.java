@@ -1,5 +1,6 @@
 package com.licensing.portal.model;
 
+import com.licensing.portal.service.DashboardCacheListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,6 +12,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "payments")
+@EntityListeners(DashboardCacheListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -6,6 +6,7 @@ import lombok.Setter;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import com.licensing.portal.service.StoreExpiryListener;
 
 import java.time.LocalDate;
 
@@ -16,6 +17,7 @@ import java.time.LocalDate;
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
+@EntityListeners(StoreExpiryListener.class)
 public class Store {
 
     @Id
@@ -1,5 +1,6 @@
 package com.licensing.portal.model;
 
+import com.licensing.portal.service.DashboardCacheListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.Getter;
@@ -14,6 +15,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "tasks")
+@EntityListeners(DashboardCacheListener.class)
 @Data
 @Getter
 @Setter
@@ -21,8 +23,10 @@ import java.util.List;
 @AllArgsConstructor
 public class Task {
 
+    // Pooled sequence (not IDENTITY) so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_seq")
+    @SequenceGenerator(name = "tasks_seq", sequenceName = "tasks_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 200)
@@ -0,0 +1,97 @@
+package com.licensing.portal.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+// Task count of one (store, assignee, license type, status) cell, written only by
+// native upserts in TaskStatusCounterRepository. Mapped so ddl-auto creates the
+// table where the V17 migration has not been applied. 0 stands for "no store" /
+// "no assignee" so the cells can be a primary key.
+@Entity
+@Table(name = "task_status_counters", indexes = @Index(name = "idx_task_status_counters_assignee",
+        columnList = "assignee_id"))
+@IdClass(TaskStatusCounter.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskStatusCounter {
+
+    @Id
+    @Column(name = "store_id", nullable = false)
+    private Long storeId;
+
+    @Id
+    @Column(name = "assignee_id", nullable = false)
+    private Long assigneeId;
+
+    @Id
+    @Column(name = "license_type", nullable = false, length = 20)
+    private String licenseType;
+
+    @Id
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "task_count", nullable = false)
+    private Long taskCount;
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public Long getAssigneeId() {
+        return assigneeId;
+    }
+
+    public String getLicenseType() {
+        return licenseType;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Long getTaskCount() {
+        return taskCount;
+    }
+
+    public static class Key implements Serializable {
+
+        private Long storeId;
+        private Long assigneeId;
+        private String licenseType;
+        private String status;
+
+        public Key() {
+        }
+
+        public Key(Long storeId, Long assigneeId, String licenseType, String status) {
+            this.storeId = storeId;
+            this.assigneeId = assigneeId;
+            this.licenseType = licenseType;
+            this.status = status;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            return Objects.equals(storeId, key.storeId) && Objects.equals(assigneeId, key.assigneeId)
+                    && Objects.equals(licenseType, key.licenseType) && Objects.equals(status, key.status);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(storeId, assigneeId, licenseType, status);
+        }
+    }
+}
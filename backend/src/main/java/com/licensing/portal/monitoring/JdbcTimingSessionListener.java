@@ -0,0 +1,31 @@
+package com.licensing.portal.monitoring;
+
+import org.hibernate.SessionEventListener;
+
+// Instantiated by Hibernate for every session (hibernate.session.events.auto);
+// adds the time spent in JDBC executes to the current request
+public class JdbcTimingSessionListener implements SessionEventListener {
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestQueryStats.onJdbcTime(System.nanoTime() - statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestQueryStats.onJdbcTime(System.nanoTime() - batchStart);
+    }
+}
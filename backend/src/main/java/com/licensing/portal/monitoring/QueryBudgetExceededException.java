@@ -0,0 +1,9 @@
+package com.licensing.portal.monitoring;
+
+// Thrown only with query-budget.fail-on-exceed, which is meant for tests
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
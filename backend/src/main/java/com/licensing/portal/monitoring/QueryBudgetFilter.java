@@ -0,0 +1,130 @@
+package com.licensing.portal.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the SQL statements and JDBC time of each request, publishes them per URI
+ * pattern and logs requests over their statement budget together with the
+ * statement they repeated most. Over-budget requests are also counted, which is
+ * what the test support checks after every test. With fail-on-exceed (tests) an
+ * over-budget request fails instead, so N+1 regressions break the build rather
+ * than production.
+ */
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+    private static final int MAX_LOGGED_SQL_LENGTH = 300;
+
+    public static final String OVER_BUDGET_METRIC = "http.server.requests.sql.over.budget";
+
+    private final MeterRegistry meterRegistry;
+
+    private final int maxStatements;
+
+    private final Duration maxJdbcTime;
+
+    private final boolean failOnExceed;
+
+    public QueryBudgetFilter(MeterRegistry meterRegistry, int maxStatements, Duration maxJdbcTime,
+            boolean failOnExceed) {
+        this.meterRegistry = meterRegistry;
+        this.maxStatements = maxStatements;
+        this.maxJdbcTime = maxJdbcTime;
+        this.failOnExceed = failOnExceed;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        RequestQueryStats stats = RequestQueryStats.start();
+        request.setAttribute(RequestQueryStats.REQUEST_ATTRIBUTE, stats);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            RequestQueryStats.end();
+            // A failing request keeps its own exception; only its numbers are recorded
+            check(request, stats, completed);
+        }
+    }
+
+    private void check(HttpServletRequest request, RequestQueryStats stats, boolean completed) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        // Unmatched paths share one tag value to keep the number of series bounded
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder("http.server.requests.sql.statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        Timer.builder("http.server.requests.sql.time")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getJdbcNanos(), TimeUnit.NANOSECONDS);
+
+        int budget = budgetFor(request);
+        boolean overStatements = stats.getStatements() > budget;
+        boolean overTime = stats.getJdbcNanos() > maxJdbcTime.toNanos();
+        if (!overStatements && !overTime) {
+            return;
+        }
+        if (overStatements) {
+            Counter.builder(OVER_BUDGET_METRIC)
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+        }
+
+        Map.Entry<String, Integer> repeated = stats.mostRepeated();
+        String message = String.format("%s %s ran %d SQL statements (budget %d) taking %d ms in JDBC; "
+                        + "most repeated %dx: %s",
+                request.getMethod(), uri, stats.getStatements(), budget, stats.getJdbcNanos() / 1_000_000,
+                repeated != null ? repeated.getValue() : 0,
+                repeated != null ? abbreviate(repeated.getKey()) : "-");
+        if (failOnExceed && completed && overStatements) {
+            throw new QueryBudgetExceededException(message);
+        }
+        log.warn(message);
+    }
+
+    private int budgetFor(HttpServletRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (handler instanceof HandlerMethod handlerMethod) {
+            QueryBudget budget = handlerMethod.getMethodAnnotation(QueryBudget.class);
+            if (budget == null) {
+                budget = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), QueryBudget.class);
+            }
+            if (budget != null) {
+                return budget.statements();
+            }
+        }
+        return maxStatements;
+    }
+
+    private String abbreviate(String sql) {
+        String flat = sql.replaceAll("\\s+", " ").trim();
+        return flat.length() > MAX_LOGGED_SQL_LENGTH ? flat.substring(0, MAX_LOGGED_SQL_LENGTH) + "..." : flat;
+    }
+}
@@ -0,0 +1,13 @@
+package com.licensing.portal.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Sees every statement Hibernate prepares, including native and bulk queries
+public class QueryCountingStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestQueryStats.onStatement(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,67 @@
+package com.licensing.portal.monitoring;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SQL statements and JDBC time of the HTTP request being handled on the current
+ * thread. Work done on other threads (executors, schedulers, SSE publishing) is
+ * not attributed to any request.
+ */
+public final class RequestQueryStats {
+
+    // The finished stats stay on the request, for tests asserting a handler's cost
+    public static final String REQUEST_ATTRIBUTE = RequestQueryStats.class.getName();
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    // Distinct statements remembered per request, to name the repeated ones
+    private static final int MAX_DISTINCT_SQL = 200;
+
+    private int statements;
+    private long jdbcNanos;
+    private final Map<String, Integer> countsBySql = new HashMap<>();
+
+    static RequestQueryStats start() {
+        RequestQueryStats stats = new RequestQueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static void onStatement(String sql) {
+        RequestQueryStats stats = CURRENT.get();
+        if (stats == null) {
+            return;
+        }
+        stats.statements++;
+        if (stats.countsBySql.size() < MAX_DISTINCT_SQL || stats.countsBySql.containsKey(sql)) {
+            stats.countsBySql.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    static void onJdbcTime(long nanos) {
+        RequestQueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.jdbcNanos += nanos;
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    // The statement run most often in this request and how often; the usual N+1 shape
+    Map.Entry<String, Integer> mostRepeated() {
+        return countsBySql.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .orElse(null);
+    }
+}
@@ -0,0 +1,36 @@
+package com.licensing.portal.repository;
+
+import com.licensing.portal.model.DocumentBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DocumentBlobRepository extends JpaRepository<DocumentBlob, String> {
+
+    // Creates the blob row or bumps its count; the row stays locked until commit
+    @Modifying
+    @Query(value = "INSERT INTO document_blobs (sha256, size_bytes, ref_count, created_at) " +
+            "VALUES (:sha256, :size, 1, now()) " +
+            "ON CONFLICT (sha256) DO UPDATE SET ref_count = document_blobs.ref_count + 1",
+            nativeQuery = true)
+    int addReference(String sha256, long size);
+
+    @Modifying
+    @Query(value = "UPDATE document_blobs SET ref_count = ref_count - 1 WHERE sha256 = :sha256",
+            nativeQuery = true)
+    int removeReference(String sha256);
+
+    // Row with no references for a blob whose upload rolled back. Waits for a
+    // concurrent addReference of the same content and then leaves its row alone.
+    @Modifying
+    @Query(value = "INSERT INTO document_blobs (sha256, size_bytes, ref_count, created_at) " +
+            "VALUES (:sha256, :size, 0, now()) ON CONFLICT (sha256) DO NOTHING",
+            nativeQuery = true)
+    int addUnreferenced(String sha256, long size);
+
+    @Modifying
+    @Query(value = "DELETE FROM document_blobs WHERE sha256 = :sha256 AND ref_count <= 0", nativeQuery = true)
+    int deleteIfUnreferenced(String sha256);
+}
@@ -1,9 +1,14 @@
 package com.licensing.portal.repository;
 
 import com.licensing.portal.model.Document;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -13,4 +18,32 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
     List<Document> findByDocumentType(String documentType);
 
     List<Document> findByStatus(Document.DocumentStatus status);
+
+    // [taskId, count] rows for the given tasks; tasks without documents are absent
+    @Query("SELECT d.task.id, COUNT(d) FROM Document d WHERE d.task.id IN :taskIds GROUP BY d.task.id")
+    List<Object[]> countByTaskIds(Collection<Long> taskIds);
+
+    // Documents waiting for post-processing whose retry delay (if any) has passed
+    @Query("SELECT d.id FROM Document d WHERE d.status = com.licensing.portal.model.Document$DocumentStatus.UPLOADED "
+            + "AND (d.nextAttemptAt IS NULL OR d.nextAttemptAt <= :now) ORDER BY d.id")
+    List<Long> findIdsReadyForProcessing(LocalDateTime now, Pageable pageable);
+
+    // Claims a document for processing; 0 when another worker (or node) got it first
+    @Modifying
+    @Query("UPDATE Document d SET d.status = com.licensing.portal.model.Document$DocumentStatus.PROCESSING, "
+            + "d.processingStartedAt = :now, d.processingAttempts = d.processingAttempts + 1 "
+            + "WHERE d.id = :id AND d.status = com.licensing.portal.model.Document$DocumentStatus.UPLOADED")
+    int claimForProcessing(Long id, LocalDateTime now);
+
+    // Puts documents whose worker died mid-way back in the queue. The abandoned run was
+    // counted when it was claimed, so one that used up the last attempt becomes FAILED
+    // like any other failed retry instead of going round again
+    @Modifying
+    @Query("UPDATE Document d SET d.status = CASE WHEN d.processingAttempts >= :maxAttempts "
+            + "THEN com.licensing.portal.model.Document$DocumentStatus.FAILED "
+            + "ELSE com.licensing.portal.model.Document$DocumentStatus.UPLOADED END, "
+            + "d.nextAttemptAt = :retryAt, d.processingError = 'Abandoned while processing' "
+            + "WHERE d.status = com.licensing.portal.model.Document$DocumentStatus.PROCESSING "
+            + "AND d.processingStartedAt < :cutoff")
+    int releaseStaleProcessing(LocalDateTime cutoff, int maxAttempts, LocalDateTime retryAt);
 }
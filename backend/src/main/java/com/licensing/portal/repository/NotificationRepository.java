@@ -1,9 +1,14 @@
 package com.licensing.portal.repository;
 
+import com.licensing.portal.dto.NotificationResponse;
 import com.licensing.portal.model.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -13,4 +18,51 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     List<Notification> findByUserIdOrderByCreatedAtDesc(Long userId);
 
     long countByUserIdAndIsRead(Long userId, Boolean isRead);
+
+    // [userId, unread count] rows for every user with unread notifications
+    @Query("SELECT n.user.id, COUNT(n) FROM Notification n WHERE n.isRead = false GROUP BY n.user.id")
+    List<Object[]> countUnreadGroupedByUser();
+
+    // [userId, unread count] rows of the notifications deleteByTaskOrParentTaskId removes
+    @Query("SELECT n.user.id, COUNT(n) FROM Notification n WHERE n.isRead = false AND n.task.id IN " +
+            "(SELECT t.id FROM Task t WHERE t.id = :taskId OR t.parentTask.id = :taskId) GROUP BY n.user.id")
+    List<Object[]> countUnreadByTaskOrParentTaskId(Long taskId);
+
+    @Query("SELECT new com.licensing.portal.dto.NotificationResponse(n.id, n.task.id, n.message, n.type, " +
+            "n.isRead, n.createdAt) FROM Notification n WHERE n.user.id = :userId " +
+            "AND (:unreadOnly = false OR n.isRead = false) ORDER BY n.id DESC")
+    List<NotificationResponse> findResponsesByUserId(Long userId, boolean unreadOnly, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.id = :id AND n.user.id = :userId AND n.isRead = false")
+    int markRead(Long id, Long userId);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.user.id = :userId AND n.isRead = false")
+    int markAllRead(Long userId);
+
+    @Query("SELECT DISTINCT n.user.id FROM Notification n WHERE n.digestedAt IS NULL")
+    List<Long> findUserIdsWithUndigested();
+
+    @Query("SELECT MAX(n.id) FROM Notification n WHERE n.user.id = :userId AND n.digestedAt IS NULL")
+    Long findMaxUndigestedId(Long userId);
+
+    // [type, count] rows of one user's notifications not yet sent in a digest
+    @Query("SELECT n.type, COUNT(n) FROM Notification n WHERE n.user.id = :userId AND n.digestedAt IS NULL " +
+            "AND n.id <= :maxId GROUP BY n.type")
+    List<Object[]> countUndigestedByType(Long userId, Long maxId);
+
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId AND n.digestedAt IS NULL " +
+            "AND n.id <= :maxId ORDER BY n.id DESC")
+    List<Notification> findUndigested(Long userId, Long maxId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.digestedAt = :now WHERE n.user.id = :userId AND n.digestedAt IS NULL " +
+            "AND n.id <= :maxId")
+    int markDigested(Long userId, Long maxId, LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.task.id IN " +
+            "(SELECT t.id FROM Task t WHERE t.id = :taskId OR t.parentTask.id = :taskId)")
+    int deleteByTaskOrParentTaskId(Long taskId);
 }
@@ -0,0 +1,49 @@
+package com.licensing.portal.repository;
+
+import com.licensing.portal.model.OutboxEmail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEmailRepository extends JpaRepository<OutboxEmail, Long> {
+
+    // Due emails, oldest first; rows already locked by another dispatcher are skipped
+    @Query(value = "SELECT id FROM email_outbox WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockDueIds(LocalDateTime now, int limit);
+
+    @Modifying
+    @Query("UPDATE OutboxEmail e SET e.status = com.licensing.portal.model.OutboxEmail$OutboxStatus.SENDING, " +
+            "e.claimedAt = :now WHERE e.id IN :ids")
+    int markSending(Collection<Long> ids, LocalDateTime now);
+
+    @Query("SELECT DISTINCT e FROM OutboxEmail e LEFT JOIN FETCH e.attachments WHERE e.id IN :ids ORDER BY e.id")
+    List<OutboxEmail> findWithAttachments(Collection<Long> ids);
+
+    // A dispatcher that died mid-batch leaves rows in SENDING; they are retried
+    // (the SMTP server may already have accepted some, so delivery is at least once)
+    @Modifying
+    @Query("UPDATE OutboxEmail e SET e.status = com.licensing.portal.model.OutboxEmail$OutboxStatus.PENDING " +
+            "WHERE e.status = com.licensing.portal.model.OutboxEmail$OutboxStatus.SENDING AND e.claimedAt < :cutoff")
+    int releaseStaleSending(LocalDateTime cutoff);
+
+    @Modifying
+    @Query(value = "DELETE FROM email_outbox_attachments a USING email_outbox e " +
+            "WHERE a.email_id = e.id AND e.status = 'SENT' AND e.sent_at < :cutoff", nativeQuery = true)
+    int deleteSentAttachmentsBefore(LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEmail e WHERE e.status = com.licensing.portal.model.OutboxEmail$OutboxStatus.SENT " +
+            "AND e.sentAt < :cutoff")
+    int deleteSentBefore(LocalDateTime cutoff);
+
+    // [status, count] rows
+    @Query("SELECT e.status, COUNT(e) FROM OutboxEmail e GROUP BY e.status")
+    List<Object[]> countByStatus();
+}
@@ -1,14 +1,31 @@
 package com.licensing.portal.repository;
 
 import com.licensing.portal.model.Payment;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
+    // The payment list shows the task title; fetch tasks in the same query instead of one per payment
+    @Override
+    @EntityGraph(attributePaths = "task")
+    List<Payment> findAll();
+
     List<Payment> findByTaskId(Long taskId);
 
     List<Payment> findByStatus(Payment.PaymentStatus status);
+
+    // [taskId, count] rows for the given tasks; tasks without payments are absent
+    @Query("SELECT p.task.id, COUNT(p) FROM Payment p WHERE p.task.id IN :taskIds GROUP BY p.task.id")
+    List<Object[]> countByTaskIds(Collection<Long> taskIds);
+
+    // [status, count, total amount] rows; :assigneeId null means all payments
+    @Query("SELECT p.status, COUNT(p), COALESCE(SUM(p.amount), 0) FROM Payment p " +
+            "WHERE (:assigneeId IS NULL OR p.task.assignee.id = :assigneeId) GROUP BY p.status")
+    List<Object[]> aggregateByStatus(Long assigneeId);
 }
@@ -0,0 +1,13 @@
+package com.licensing.portal.repository;
+
+import com.licensing.portal.model.RenewalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface RenewalCheckpointRepository extends JpaRepository<RenewalCheckpoint, Long> {
+    List<RenewalCheckpoint> findByRunDate(LocalDate runDate);
+}
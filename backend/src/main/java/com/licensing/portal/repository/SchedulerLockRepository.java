@@ -0,0 +1,48 @@
+package com.licensing.portal.repository;
+
+import com.licensing.portal.model.SchedulerLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+
+    // Takes the lease if it is free or expired. Owners are unique per run, so this is
+    // not re-entrant. Uses the database clock so nodes with skewed clocks agree.
+    // Returns 1 on success.
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO scheduler_locks (name, locked_by, locked_at, locked_until) " +
+            "VALUES (:name, :owner, now(), now() + make_interval(secs => :leaseSeconds)) " +
+            "ON CONFLICT (name) DO UPDATE SET locked_by = EXCLUDED.locked_by, " +
+            "locked_at = EXCLUDED.locked_at, locked_until = EXCLUDED.locked_until " +
+            "WHERE scheduler_locks.locked_until <= now()",
+            nativeQuery = true)
+    int tryAcquire(String name, String owner, long leaseSeconds);
+
+    // Extends the lease unless another owner has taken it over. Returns 0 if it has.
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE scheduler_locks SET locked_until = now() + make_interval(secs => :leaseSeconds) " +
+            "WHERE name = :name AND locked_by = :owner",
+            nativeQuery = true)
+    int renew(String name, String owner, long leaseSeconds);
+
+    // Share-locks the lease row for the rest of the caller's transaction if the owner
+    // still holds an unexpired lease; empty otherwise
+    @Query(value = "SELECT name FROM scheduler_locks " +
+            "WHERE name = :name AND locked_by = :owner AND locked_until > now() FOR SHARE",
+            nativeQuery = true)
+    List<String> lockIfHeld(String name, String owner);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE scheduler_locks SET locked_until = now() WHERE name = :name AND locked_by = :owner",
+            nativeQuery = true)
+    int release(String name, String owner);
+}
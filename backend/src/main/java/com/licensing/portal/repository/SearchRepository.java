@@ -0,0 +1,70 @@
+package com.licensing.portal.repository;
+
+import com.licensing.portal.model.Task;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+import java.util.List;
+
+// Ranked full-text search over the generated search_vector columns (V13 migration)
+@org.springframework.stereotype.Repository
+public interface SearchRepository extends Repository<Task, Long> {
+
+    interface SearchHit {
+        String getType();
+
+        Long getId();
+
+        Long getTaskId();
+
+        String getTitle();
+
+        String getSnippet();
+
+        Double getRank();
+    }
+
+    // Ranks ids across all three tables first and only builds titles and highlighted
+    // snippets (ts_headline is the expensive part) for the requested page.
+    // :pattern is a LIKE pattern for substring matches on store names and codes, or
+    // null for queries too short for the trigram indexes.
+    @Query(value = "WITH q AS (SELECT websearch_to_tsquery('russian', :query) AS query), " +
+            "hits AS (" +
+            "  (SELECT 'TASK' AS type, t.id AS id, ts_rank_cd(t.search_vector, q.query) AS rank " +
+            "   FROM tasks t, q " +
+            "   WHERE :includeTasks AND t.search_vector @@ q.query " +
+            "   AND (CAST(:assigneeId AS BIGINT) IS NULL OR t.assignee_id = CAST(:assigneeId AS BIGINT))) " +
+            "  UNION ALL " +
+            "  (SELECT 'STORE', s.id, GREATEST(ts_rank_cd(s.search_vector, q.query), " +
+            "          similarity(upper(s.name), upper(:query))) " +
+            "   FROM stores s, q " +
+            "   WHERE :includeStores AND (s.search_vector @@ q.query " +
+            "   OR upper(s.name) % upper(:query) " +
+            "   OR upper(s.name) LIKE upper(CAST(:pattern AS TEXT)) " +
+            "   OR s.inn LIKE CAST(:pattern AS TEXT) OR s.mvz LIKE CAST(:pattern AS TEXT))) " +
+            "  UNION ALL " +
+            "  (SELECT 'DOCUMENT', d.id, ts_rank_cd(d.search_vector, q.query) " +
+            "   FROM documents d JOIN tasks dt ON dt.id = d.task_id, q " +
+            "   WHERE :includeDocuments AND d.search_vector @@ q.query " +
+            "   AND (CAST(:assigneeId AS BIGINT) IS NULL OR dt.assignee_id = CAST(:assigneeId AS BIGINT))) " +
+            "  ORDER BY rank DESC, type, id " +
+            "  LIMIT :limit OFFSET :offset" +
+            ") " +
+            "SELECT h.type AS \"type\", h.id AS \"id\", CAST(h.rank AS DOUBLE PRECISION) AS \"rank\", " +
+            "  CASE h.type WHEN 'TASK' THEN t.title WHEN 'STORE' THEN s.name ELSE d.file_name END AS \"title\", " +
+            "  CASE h.type WHEN 'TASK' THEN t.id ELSE d.task_id END AS \"taskId\", " +
+            "  ts_headline('russian', " +
+            "    CASE h.type WHEN 'TASK' THEN concat_ws(' ', t.description, t.status_reason) " +
+            "                WHEN 'STORE' THEN concat_ws(' ', s.address, s.inn, s.mvz) " +
+            "                ELSE d.extracted_text END, " +
+            "    q.query, 'StartSel=<mark>, StopSel=</mark>, MaxFragments=2, MaxWords=20, MinWords=5') AS \"snippet\" " +
+            "FROM hits h CROSS JOIN q " +
+            "LEFT JOIN tasks t ON h.type = 'TASK' AND t.id = h.id " +
+            "LEFT JOIN stores s ON h.type = 'STORE' AND s.id = h.id " +
+            "LEFT JOIN documents d ON h.type = 'DOCUMENT' AND d.id = h.id " +
+            "ORDER BY h.rank DESC, h.type, h.id",
+            nativeQuery = true)
+    List<SearchHit> search(String query, String pattern, Long assigneeId,
+            boolean includeTasks, boolean includeStores, boolean includeDocuments,
+            int limit, long offset);
+}
@@ -2,6 +2,7 @@ package com.licensing.portal.repository;
 
 import com.licensing.portal.model.Store;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -21,4 +22,52 @@ public interface StoreRepository extends JpaRepository<Store, Long> {
 
     // Find stores with expiring tobacco licenses
     List<Store> findByIsActiveTrueAndTobaccoLicenseExpiryLessThanEqual(LocalDate date);
+
+    // Active stores in [fromId, toId) whose alcohol or tobacco license expires by :date
+    // and that have no open RENEWAL task for that license type yet (one anti-join
+    // over both types)
+    @Query(value = "SELECT c.store_id AS \"storeId\", c.store_name AS \"storeName\", " +
+            "c.license_type AS \"licenseType\", c.expiry AS \"expiry\" FROM (" +
+            "  SELECT s.id AS store_id, s.name AS store_name, 'ALCOHOL' AS license_type, " +
+            "         s.alcohol_license_expiry AS expiry " +
+            "  FROM stores s WHERE s.is_active = TRUE AND s.alcohol_license_expiry <= :date " +
+            "  AND s.id >= :fromId AND s.id < :toId " +
+            "  UNION ALL " +
+            "  SELECT s.id, s.name, 'TOBACCO', s.tobacco_license_expiry " +
+            "  FROM stores s WHERE s.is_active = TRUE AND s.tobacco_license_expiry <= :date " +
+            "  AND s.id >= :fromId AND s.id < :toId" +
+            ") c WHERE NOT EXISTS (" +
+            "  SELECT 1 FROM tasks t WHERE t.store_id = c.store_id " +
+            "  AND t.license_type = c.license_type AND t.action_type = 'RENEWAL' " +
+            "  AND t.status IN ('ASSIGNED', 'IN_PROGRESS', 'SUSPENDED')" +
+            ") ORDER BY c.store_id, c.license_type", nativeQuery = true)
+    List<RenewalCandidate> findRenewalCandidates(LocalDate date, Long fromId, Long toId);
+
+    @Query("SELECT MIN(s.id) FROM Store s WHERE s.isActive = true")
+    Long findMinActiveId();
+
+    @Query("SELECT MAX(s.id) FROM Store s WHERE s.isActive = true")
+    Long findMaxActiveId();
+
+    @Query("SELECT s.id AS id, s.alcoholLicenseExpiry AS alcoholLicenseExpiry, " +
+            "s.tobaccoLicenseExpiry AS tobaccoLicenseExpiry FROM Store s WHERE s.isActive = true")
+    List<StoreExpiry> findActiveExpiries();
+
+    interface StoreExpiry {
+        Long getId();
+
+        LocalDate getAlcoholLicenseExpiry();
+
+        LocalDate getTobaccoLicenseExpiry();
+    }
+
+    interface RenewalCandidate {
+        Long getStoreId();
+
+        String getStoreName();
+
+        String getLicenseType();
+
+        LocalDate getExpiry();
+    }
 }
@@ -1,16 +1,27 @@
 package com.licensing.portal.repository;
 
+import com.licensing.portal.dto.TaskResponse;
 import com.licensing.portal.model.Task;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
-import java.util.Collection;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface TaskRepository extends JpaRepository<Task, Long> {
+
+    // Read path for list endpoints: builds TaskResponse rows in one joined query
+    // instead of touching the lazy store/assignee/createdBy associations per row
+    String RESPONSE_SELECT = "SELECT new com.licensing.portal.dto.TaskResponse(" +
+            "t.id, t.title, t.description, t.licenseType, t.actionType, t.status, t.statusReason, " +
+            "s.id, s.name, a.id, a.fullName, c.id, c.fullName, " +
+            "t.deadlineDate, t.createdAt, t.updatedAt) " +
+            "FROM Task t LEFT JOIN t.store s LEFT JOIN t.assignee a LEFT JOIN t.createdBy c ";
+
     List<Task> findByAssigneeId(Long assigneeId);
 
     List<Task> findByStoreId(Long storeId);
@@ -25,13 +36,65 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     @Query("SELECT t FROM Task t WHERE t.deadlineDate BETWEEN :startDate AND :endDate")
     List<Task> findTasksWithDeadlineBetween(LocalDate startDate, LocalDate endDate);
 
-    // Check if renewal task already exists for a store and license type
-    boolean existsByStoreIdAndLicenseTypeAndActionTypeAndStatusIn(
-            Long storeId,
+    // Find subtasks by parent task ID
+    List<Task> findByParentTaskId(Long parentTaskId);
+
+    @Query(RESPONSE_SELECT + "ORDER BY t.id")
+    List<TaskResponse> findAllResponses();
+
+    @Query(RESPONSE_SELECT + "WHERE a.id = :assigneeId ORDER BY t.id")
+    List<TaskResponse> findResponsesByAssigneeId(Long assigneeId);
+
+    @Query(RESPONSE_SELECT + "WHERE t.deadlineDate BETWEEN :startDate AND :endDate ORDER BY t.deadlineDate, t.id")
+    List<TaskResponse> findResponsesWithDeadlineBetween(LocalDate startDate, LocalDate endDate);
+
+    @Query(RESPONSE_SELECT + "WHERE t.parentTask.id = :parentTaskId ORDER BY t.id")
+    List<TaskResponse> findResponsesByParentTaskId(Long parentTaskId);
+
+    // Keyset page of tasks, newest first. Every filter is optional (null = any);
+    // afterId is the last id of the previous page.
+    @Query(RESPONSE_SELECT + "WHERE (:afterId IS NULL OR t.id < :afterId) " +
+            "AND (:status IS NULL OR t.status = :status) " +
+            "AND (:licenseType IS NULL OR t.licenseType = :licenseType) " +
+            "AND (:actionType IS NULL OR t.actionType = :actionType) " +
+            "AND (:storeId IS NULL OR s.id = :storeId) " +
+            "AND (:assigneeId IS NULL OR a.id = :assigneeId) " +
+            "AND (:deadlineFrom IS NULL OR t.deadlineDate >= :deadlineFrom) " +
+            "AND (:deadlineTo IS NULL OR t.deadlineDate <= :deadlineTo) " +
+            "ORDER BY t.id DESC")
+    List<TaskResponse> findPage(Long afterId,
+            Task.TaskStatus status,
             Task.LicenseType licenseType,
             Task.ActionType actionType,
-            Collection<Task.TaskStatus> statuses);
+            Long storeId,
+            Long assigneeId,
+            LocalDate deadlineFrom,
+            LocalDate deadlineTo,
+            Pageable pageable);
 
-    // Find subtasks by parent task ID
-    List<Task> findByParentTaskId(Long parentTaskId);
+    interface DeadlineCandidate {
+        Long getTaskId();
+
+        Long getAssigneeId();
+
+        String getTitle();
+
+        LocalDate getDeadlineDate();
+    }
+
+    // Open assigned tasks due in [from, to] that have not had a deadline warning since :since
+    @Query("SELECT t.id AS taskId, t.assignee.id AS assigneeId, t.title AS title, t.deadlineDate AS deadlineDate " +
+            "FROM Task t WHERE t.deadlineDate BETWEEN :from AND :to AND t.assignee IS NOT NULL " +
+            "AND t.status <> com.licensing.portal.model.Task$TaskStatus.DONE " +
+            "AND NOT EXISTS (SELECT 1 FROM Notification n WHERE n.task = t " +
+            "AND n.type = com.licensing.portal.model.Notification$NotificationType.DEADLINE_WARNING " +
+            "AND n.createdAt >= :since)")
+    List<DeadlineCandidate> findDeadlineWarningCandidates(LocalDate from, LocalDate to, LocalDateTime since);
+
+    // [assigneeId, overdue count] rows for open tasks past their deadline; unassigned
+    // tasks come back with a null assignee. :assigneeId null means all tasks.
+    @Query("SELECT t.assignee.id, COUNT(t) FROM Task t WHERE t.deadlineDate < :today " +
+            "AND t.status <> com.licensing.portal.model.Task$TaskStatus.DONE " +
+            "AND (:assigneeId IS NULL OR t.assignee.id = :assigneeId) GROUP BY t.assignee.id")
+    List<Object[]> countOverdueByAssignee(LocalDate today, Long assigneeId);
 }
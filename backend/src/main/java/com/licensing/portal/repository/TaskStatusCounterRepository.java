@@ -0,0 +1,69 @@
+package com.licensing.portal.repository;
+
+import com.licensing.portal.model.TaskStatusCounter;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+import java.util.List;
+
+// Materialized task counts per (store, assignee, license type, status) cell
+// (TaskStatusCounter). 0 stands for "no store" / "no assignee".
+@org.springframework.stereotype.Repository
+public interface TaskStatusCounterRepository extends Repository<TaskStatusCounter, TaskStatusCounter.Key> {
+
+    @Modifying
+    @Query(value = "INSERT INTO task_status_counters (store_id, assignee_id, license_type, status, task_count) " +
+            "VALUES (:storeId, :assigneeId, :licenseType, :status, :delta) " +
+            "ON CONFLICT (store_id, assignee_id, license_type, status) " +
+            "DO UPDATE SET task_count = task_status_counters.task_count + EXCLUDED.task_count", nativeQuery = true)
+    int increment(long storeId, long assigneeId, String licenseType, String status, long delta);
+
+    // [assigneeId, username, fullName, status, count] rows; assigneeId 0 is unassigned.
+    // :assigneeId null means all assignees.
+    @Query(value = "SELECT c.assignee_id, u.username, u.full_name, c.status, SUM(c.task_count) " +
+            "FROM task_status_counters c LEFT JOIN users u ON u.id = c.assignee_id " +
+            "WHERE (CAST(:assigneeId AS BIGINT) IS NULL OR c.assignee_id = CAST(:assigneeId AS BIGINT)) " +
+            "AND c.task_count <> 0 " +
+            "GROUP BY c.assignee_id, u.username, u.full_name, c.status", nativeQuery = true)
+    List<Object[]> sumByAssigneeAndStatus(Long assigneeId);
+
+    // [licenseType, count] rows
+    @Query(value = "SELECT c.license_type, SUM(c.task_count) FROM task_status_counters c " +
+            "WHERE (CAST(:assigneeId AS BIGINT) IS NULL OR c.assignee_id = CAST(:assigneeId AS BIGINT)) " +
+            "AND c.task_count <> 0 " +
+            "GROUP BY c.license_type", nativeQuery = true)
+    List<Object[]> sumByLicenseType(Long assigneeId);
+
+    // Blocks counter increments (which take ROW EXCLUSIVE) until the reconcile
+    // commits; writers that already incremented are waited for
+    @Modifying
+    @Query(value = "LOCK TABLE task_status_counters IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForReconcile();
+
+    // Sets every cell that disagrees with the tasks table to the real count;
+    // returns the number of cells that were wrong or missing
+    @Modifying
+    @Query(value = "INSERT INTO task_status_counters (store_id, assignee_id, license_type, status, task_count) " +
+            "SELECT COALESCE(t.store_id, 0), COALESCE(t.assignee_id, 0), t.license_type, " +
+            "COALESCE(t.status, 'ASSIGNED'), COUNT(*) FROM tasks t GROUP BY 1, 2, 3, 4 " +
+            "ON CONFLICT (store_id, assignee_id, license_type, status) " +
+            "DO UPDATE SET task_count = EXCLUDED.task_count " +
+            "WHERE task_status_counters.task_count <> EXCLUDED.task_count", nativeQuery = true)
+    int repairCounts();
+
+    // Non-zero cells without any task behind them; run after repairCounts
+    @Modifying
+    @Query(value = "DELETE FROM task_status_counters c WHERE c.task_count <> 0 AND NOT EXISTS (SELECT 1 FROM tasks t " +
+            "WHERE COALESCE(t.store_id, 0) = c.store_id AND COALESCE(t.assignee_id, 0) = c.assignee_id " +
+            "AND t.license_type = c.license_type AND COALESCE(t.status, 'ASSIGNED') = c.status)", nativeQuery = true)
+    int deleteOrphanedCells();
+
+    // Cells emptied by ordinary transitions; after repairCounts none of them has tasks
+    @Modifying
+    @Query(value = "DELETE FROM task_status_counters WHERE task_count = 0", nativeQuery = true)
+    int deleteZeroCells();
+
+    @Query(value = "SELECT COUNT(*) FROM task_status_counters", nativeQuery = true)
+    long countCells();
+}
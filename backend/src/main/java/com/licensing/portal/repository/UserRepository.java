@@ -2,8 +2,10 @@ package com.licensing.portal.repository;
 
 import com.licensing.portal.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -15,4 +17,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    @Query("SELECT u.id FROM User u WHERE u.isActive = true")
+    List<Long> findActiveUserIds();
+
+    @Query("SELECT COUNT(u) > 0 FROM User u WHERE u.id = :id AND u.isActive = true")
+    boolean isActiveUser(Long id);
 }
@@ -1,12 +1,18 @@
 package com.licensing.portal.security;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -15,50 +21,110 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String EVENTS_PATH = "/events";
+
+    private static final String STREAM_TOKEN_PARAM = "access_token";
+
     @Autowired
     private JwtTokenProvider tokenProvider;
 
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private UserRevocationCache revocationCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Opt-in: trust roles from the token instead of loading the user per request
+    @Value("${jwt.claims-auth.enabled:false}")
+    private boolean claimsAuthEnabled;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
             HttpServletResponse response,
             FilterChain filterChain) throws ServletException, IOException {
         logger.debug("JWT Authentication Filter - doFilterInternal called for: " + request.getRequestURI());
+        long startedAt = System.nanoTime();
+        String outcome = "anonymous";
         try {
-            String jwt = getJwtFromRequest(request);
+            boolean eventStream = EVENTS_PATH.equals(request.getServletPath());
+            String jwt = getBearerToken(request);
+            boolean fromQuery = false;
+            if (jwt == null && eventStream) {
+                // Browsers' EventSource cannot set headers, so the event stream alone
+                // accepts a (stream) token as a query parameter
+                jwt = request.getParameter(STREAM_TOKEN_PARAM);
+                fromQuery = true;
+            }
             logger.debug("JWT Authentication Filter - JWT found: " + (jwt != null));
 
             if (StringUtils.hasText(jwt)) {
-                boolean isValid = tokenProvider.validateToken(jwt);
-                logger.debug("JWT Authentication Filter - Token valid: " + isValid);
+                Optional<Claims> claims = tokenProvider.parseValidClaims(jwt);
+                // Login tokens never in a URL, stream tokens nowhere but the event stream
+                if (claims.isPresent() && tokenProvider.isStreamToken(claims.get()) != fromQuery) {
+                    claims = Optional.empty();
+                }
+                logger.debug("JWT Authentication Filter - Token valid: " + claims.isPresent());
 
-                if (isValid) {
-                    String username = tokenProvider.getUsernameFromToken(jwt);
+                outcome = "invalid";
+                if (claims.isPresent()) {
+                    String username = claims.get().getSubject();
                     logger.debug("JWT Authentication Filter - Username from token: " + username);
 
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities());
-                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    UserDetails userDetails;
+                    if (claimsAuthEnabled && tokenProvider.hasAuthorityClaims(claims.get())) {
+                        userDetails = userDetailsFromClaims(username, claims.get());
+                    } else {
+                        userDetails = userDetailsService.loadUserByUsername(username);
+                    }
+                    outcome = userDetails != null ? "authenticated" : "rejected";
 
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                    logger.debug("JWT Authentication Filter - Successfully authenticated user: " + username);
+                    if (userDetails != null) {
+                        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                                userDetails, null, userDetails.getAuthorities());
+                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                        SecurityContextHolder.getContext().setAuthentication(authentication);
+                        logger.debug("JWT Authentication Filter - Successfully authenticated user: " + username);
+                    }
                 }
             }
         } catch (Exception ex) {
+            outcome = "error";
             logger.error("Could not set user authentication in security context", ex);
         }
+        // Token check and principal lookup only, not the rest of the request
+        meterRegistry.timer("auth.jwt", "outcome", outcome).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
 
         filterChain.doFilter(request, response);
     }
 
-    private String getJwtFromRequest(HttpServletRequest request) {
+    // Builds the principal from verified token claims without touching the database;
+    // returns null for deactivated users
+    private UserDetails userDetailsFromClaims(String username, Claims claims) {
+        Long userId = tokenProvider.getUserId(claims);
+        if (!tokenProvider.isActive(claims) || revocationCache.isRevoked(userId)) {
+            logger.debug("JWT Authentication Filter - User is deactivated: " + username);
+            return null;
+        }
+
+        Set<GrantedAuthority> authorities = tokenProvider.getRoles(claims).stream()
+                .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                .collect(Collectors.toSet());
+        return new User(username, "", authorities);
+    }
+
+    private String getBearerToken(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
             return bearerToken.substring(7);
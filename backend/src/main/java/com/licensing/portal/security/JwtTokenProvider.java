@@ -2,28 +2,54 @@ package com.licensing.portal.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
+import com.licensing.portal.model.User;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 
 @Component
 public class JwtTokenProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
 
-    @Value("${jwt.expiration}")
-    private int jwtExpiration;
+    // Claims used by claims-based authentication (jwt.claims-auth.enabled)
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_ACTIVE = "active";
 
-    private SecretKey getSigningKey() {
-        String secret = "5367566B59703373367639792F423F4528482B4D6251655468576D5A7134743777217A25432A462D4A614E635266556A586E3272357538782F413F4428472B4B";
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    // Stream tokens carry this scope and are accepted on the event stream only
+    public static final String CLAIM_SCOPE = "scope";
+    public static final String SCOPE_EVENTS = "events";
+
+    private final int jwtExpiration;
+
+    private final int streamTokenExpiration;
+
+    // Built once at startup; both are immutable and safe to share between request threads
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+
+    public JwtTokenProvider(@Value("${jwt.secret}") String secret,
+            @Value("${jwt.expiration}") int jwtExpiration,
+            @Value("${jwt.stream-token-expiration:60000}") int streamTokenExpiration) {
+        this.jwtExpiration = jwtExpiration;
+        this.streamTokenExpiration = streamTokenExpiration;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
 
     public String generateToken(Authentication authentication) {
@@ -36,28 +62,82 @@ public class JwtTokenProvider {
                 .subject(userPrincipal.getUsername())
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    // Same as generateToken(Authentication), plus the user id, roles and active flag
+    // so requests can be authenticated without loading the user
+    public String generateToken(Authentication authentication, User user) {
+        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
+
+        Date now = new Date();
+        Date expiryDate = new Date(now.getTime() + jwtExpiration);
+
+        return Jwts.builder()
+                .subject(userPrincipal.getUsername())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_ROLES, new ArrayList<>(user.getRoles()))
+                .claim(CLAIM_ACTIVE, user.getIsActive())
+                .issuedAt(now)
+                .expiration(expiryDate)
+                .signWith(signingKey)
+                .compact();
+    }
+
+    // Short-lived token for opening the event stream, which has to travel in the URL
+    // because EventSource cannot send headers. It only needs to be valid at connect time.
+    public String generateStreamToken(String username) {
+        Date now = new Date();
+        Date expiryDate = new Date(now.getTime() + streamTokenExpiration);
+
+        return Jwts.builder()
+                .subject(username)
+                .claim(CLAIM_SCOPE, SCOPE_EVENTS)
+                .issuedAt(now)
+                .expiration(expiryDate)
+                .signWith(signingKey)
+                .compact();
+    }
 
-        return claims.getSubject();
+    public boolean isStreamToken(Claims claims) {
+        return SCOPE_EVENTS.equals(claims.get(CLAIM_SCOPE));
+    }
+
+    public boolean hasAuthorityClaims(Claims claims) {
+        return claims.get(CLAIM_USER_ID) != null && claims.get(CLAIM_ROLES) instanceof Collection;
+    }
+
+    public Long getUserId(Claims claims) {
+        return ((Number) claims.get(CLAIM_USER_ID)).longValue();
+    }
+
+    public List<String> getRoles(Claims claims) {
+        List<String> roles = new ArrayList<>();
+        for (Object role : (Collection<?>) claims.get(CLAIM_ROLES)) {
+            roles.add(String.valueOf(role));
+        }
+        return roles;
+    }
+
+    public boolean isActive(Claims claims) {
+        return !Boolean.FALSE.equals(claims.get(CLAIM_ACTIVE, Boolean.class));
+    }
+
+    public String getUsernameFromToken(String token) {
+        return parser.parseSignedClaims(token).getPayload().getSubject();
     }
 
     public boolean validateToken(String authToken) {
+        return parseValidClaims(authToken).isPresent();
+    }
+
+    // Verifies the token once and returns its claims, or empty if it is not valid
+    public Optional<Claims> parseValidClaims(String authToken) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(authToken);
+            Claims claims = parser.parseSignedClaims(authToken).getPayload();
             logger.debug("JWT token validation successful");
-            return true;
+            return Optional.of(claims);
         } catch (SecurityException | MalformedJwtException e) {
             logger.error("Invalid JWT signature or malformed token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -67,6 +147,6 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
-        return false;
+        return Optional.empty();
     }
 }
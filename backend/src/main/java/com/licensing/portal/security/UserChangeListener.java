@@ -0,0 +1,54 @@
+package com.licensing.portal.security;
+
+import com.licensing.portal.model.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Pushes committed User changes into the authentication caches
+@Component
+public class UserChangeListener {
+
+    @Autowired
+    private UserRevocationCache revocationCache;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(User user) {
+        String username = user.getUsername();
+        afterCommit(() -> {
+            revocationCache.onUserChanged(user);
+            userDetailsCache.invalidate(username);
+        });
+    }
+
+    @PostRemove
+    public void onRemove(User user) {
+        Long userId = user.getId();
+        String username = user.getUsername();
+        afterCommit(() -> {
+            revocationCache.onUserRemoved(userId);
+            userDetailsCache.invalidate(username);
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
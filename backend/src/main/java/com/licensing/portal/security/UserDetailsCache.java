@@ -0,0 +1,70 @@
+package com.licensing.portal.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded, expire-after-write cache of UserDetails by username. Entries are dropped
+ * when the user changes on this node; changes made on other nodes show up after the TTL.
+ */
+@Component
+public class UserDetailsCache implements MeterBinder {
+
+    private final Cache<String, UserDetails> cache;
+
+    // Username -> user id for endpoints that must not query the database per call
+    private final Cache<String, Long> userIds;
+
+    public UserDetailsCache(@Value("${auth.user-cache.maximum-size:1000}") long maximumSize,
+            @Value("${auth.user-cache.ttl:PT60S}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.userIds = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    // Returns a copy each time: authentication erases credentials on the principal,
+    // which must not reach the cached instance
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        return User.withUserDetails(cache.get(username, loader)).build();
+    }
+
+    public Long getUserId(String username, Function<String, Long> loader) {
+        return userIds.get(username, loader);
+    }
+
+    public void invalidate(String username) {
+        cache.invalidate(username);
+        userIds.invalidate(username);
+    }
+
+    // Hit rate of the per-request user lookup in JwtAuthenticationFilter
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "userDetails");
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,79 @@
+package com.licensing.portal.security;
+
+import com.licensing.portal.model.User;
+import com.licensing.portal.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ids of active users, consulted by claims-based authentication instead of loading
+ * the user on every request. Any other id is revoked, so users deactivated or
+ * deleted on another node are rejected from the next refresh at the latest.
+ * Reloaded from the database every jwt.revocation-refresh and updated immediately
+ * for user changes made on this node.
+ */
+@Component
+public class UserRevocationCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserRevocationCache.class);
+
+    // Provider to avoid a cycle through the User entity listener
+    private final ObjectProvider<UserRepository> userRepository;
+
+    private volatile Set<Long> activeUserIds = ConcurrentHashMap.newKeySet();
+
+    // Unknown ids found revoked since the last refresh, so repeated requests with the
+    // token of a deleted user do not query the database each time
+    private volatile Set<Long> revokedUserIds = ConcurrentHashMap.newKeySet();
+
+    public UserRevocationCache(ObjectProvider<UserRepository> userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${jwt.revocation-refresh:PT30S}",
+            initialDelayString = "${jwt.revocation-refresh:PT30S}")
+    public void refresh() {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ids.addAll(userRepository.getObject().findActiveUserIds());
+        activeUserIds = ids;
+        revokedUserIds = ConcurrentHashMap.newKeySet();
+        logger.debug("User revocation cache refreshed, {} active users", ids.size());
+    }
+
+    public boolean isRevoked(Long userId) {
+        if (activeUserIds.contains(userId)) {
+            return false;
+        }
+        if (revokedUserIds.contains(userId)) {
+            return true;
+        }
+        // Created on another node since the last refresh, or no longer active
+        boolean active = userRepository.getObject().isActiveUser(userId);
+        (active ? activeUserIds : revokedUserIds).add(userId);
+        return !active;
+    }
+
+    public void onUserChanged(User user) {
+        if (Boolean.TRUE.equals(user.getIsActive())) {
+            revokedUserIds.remove(user.getId());
+            activeUserIds.add(user.getId());
+        } else {
+            activeUserIds.remove(user.getId());
+            revokedUserIds.add(user.getId());
+        }
+    }
+
+    public void onUserRemoved(Long userId) {
+        activeUserIds.remove(userId);
+        revokedUserIds.add(userId);
+    }
+}
@@ -0,0 +1,120 @@
+package com.licensing.portal.service;
+
+import com.licensing.portal.repository.DocumentBlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Key layout for content-addressed document blobs: blobs/ab/cd/abcd....
+ * Reference counts live in document_blobs; callers change them under the blob row
+ * lock and use this class only for the storage side.
+ */
+@Service
+public class ContentAddressedStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentAddressedStore.class);
+
+    @Autowired
+    private DocumentStorage storage;
+
+    @Autowired
+    private DocumentBlobRepository documentBlobRepository;
+
+    // Runs the rollback cleanup on its own, the upload transaction being finished by then
+    private final TransactionTemplate cleanupTransaction;
+
+    public ContentAddressedStore(PlatformTransactionManager transactionManager) {
+        this.cleanupTransaction = new TransactionTemplate(transactionManager);
+        this.cleanupTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public String keyFor(String sha256) {
+        return "blobs/" + sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256;
+    }
+
+    // Blobs stored before the storage SPI were recorded as absolute local paths
+    // ending in the same key
+    public boolean isBlobPath(String sha256, String filePath) {
+        if (sha256 == null || filePath == null) {
+            return false;
+        }
+        String key = keyFor(sha256);
+        return filePath.equals(key) || filePath.replace('\\', '/').endsWith("/" + key);
+    }
+
+    // Puts freshly written content into storage unless the blob is already there,
+    // in which case the temp file is simply dropped by the caller. Call inside the
+    // transaction that adds the reference: if it rolls back, a blob written here is
+    // removed again unless another upload has referenced it meanwhile.
+    public String store(Path tempFile, String sha256, long size) throws IOException {
+        String key = keyFor(sha256);
+        if (!storage.exists(key)) {
+            storage.put(key, tempFile);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        deleteOrphan(sha256, size);
+                    }
+                }
+            });
+        }
+        return key;
+    }
+
+    // Called after the last reference is gone, inside that transaction. The blob is
+    // moved away at once (so a concurrent upload of the same content writes a
+    // fresh copy) and only deleted after commit; a rollback puts it back.
+    public void deleteAfterCommit(String sha256) throws IOException {
+        String key = keyFor(sha256);
+        if (!storage.exists(key)) {
+            return;
+        }
+        String trash = key + ".deleted-" + UUID.randomUUID();
+        storage.move(key, trash);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED || storage.exists(key)) {
+                        storage.delete(trash);
+                    } else {
+                        storage.move(trash, key);
+                    }
+                } catch (IOException | RuntimeException ex) {
+                    logger.warn("Could not finish deleting blob {}: {}", sha256, ex.toString());
+                }
+            }
+        });
+    }
+
+    private void deleteOrphan(String sha256, long size) {
+        try {
+            cleanupTransaction.executeWithoutResult(status -> {
+                documentBlobRepository.addUnreferenced(sha256, size);
+                if (documentBlobRepository.deleteIfUnreferenced(sha256) > 0) {
+                    try {
+                        deleteAfterCommit(sha256);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                }
+            });
+        } catch (RuntimeException ex) {
+            logger.warn("Could not remove blob {} of a rolled back upload: {}", sha256, ex.toString());
+        }
+    }
+}
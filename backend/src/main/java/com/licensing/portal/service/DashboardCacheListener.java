@@ -0,0 +1,47 @@
+package com.licensing.portal.service;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Drops the cached dashboard aggregates after a transaction that wrote tasks or
+// payments commits; once per transaction however many rows it touched
+@Component
+public class DashboardCacheListener {
+
+    private static final Object TRANSACTION_KEY = new Object();
+
+    // Provider: DashboardService needs JPA, which needs this listener
+    private final ObjectProvider<DashboardService> dashboardService;
+
+    public DashboardCacheListener(ObjectProvider<DashboardService> dashboardService) {
+        this.dashboardService = dashboardService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dashboardService.getObject().invalidate();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(TRANSACTION_KEY)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(TRANSACTION_KEY, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_KEY);
+                if (status == STATUS_COMMITTED) {
+                    dashboardService.getObject().invalidate();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,138 @@
+package com.licensing.portal.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.licensing.portal.dto.DashboardSummaryResponse;
+import com.licensing.portal.dto.ManagerWorkloadResponse;
+import com.licensing.portal.model.User;
+import com.licensing.portal.repository.PaymentRepository;
+import com.licensing.portal.repository.TaskRepository;
+import com.licensing.portal.repository.TaskStatusCounterRepository;
+import com.licensing.portal.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dashboard numbers from the materialized task counters (TaskStatusCounterService)
+ * plus grouped aggregates for overdue tasks and payments, cached for a short TTL and
+ * dropped whenever a task or payment is written on this node (see
+ * DashboardCacheListener). Admins and managers see everything, other users only
+ * their own tasks.
+ */
+@Service
+public class DashboardService {
+
+    // Cache key for the unscoped (all tasks) variant
+    private static final long ALL = -1L;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskStatusCounterRepository counterRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Cache<Long, List<ManagerWorkloadResponse>> workloadCache;
+
+    private final Cache<Long, DashboardSummaryResponse> summaryCache;
+
+    public DashboardService(@Value("${dashboard.cache-ttl:PT30S}") Duration ttl) {
+        this.workloadCache = Caffeine.newBuilder().maximumSize(1000).expireAfterWrite(ttl).build();
+        this.summaryCache = Caffeine.newBuilder().maximumSize(1000).expireAfterWrite(ttl).build();
+    }
+
+    public List<ManagerWorkloadResponse> getWorkload(String username) {
+        Long scope = scopeFor(username);
+        return workloadCache.get(scope, key -> loadWorkload(key == ALL ? null : key));
+    }
+
+    public DashboardSummaryResponse getSummary(String username) {
+        Long scope = scopeFor(username);
+        return summaryCache.get(scope, key -> loadSummary(key == ALL ? null : key));
+    }
+
+    public void invalidate() {
+        workloadCache.invalidateAll();
+        summaryCache.invalidateAll();
+    }
+
+    private List<ManagerWorkloadResponse> loadWorkload(Long assigneeId) {
+        Map<Long, ManagerWorkloadResponse> byUser = new LinkedHashMap<>();
+        for (Object[] row : counterRepository.sumByAssigneeAndStatus(assigneeId)) {
+            long userId = ((Number) row[0]).longValue();
+            if (userId == 0) {
+                // Unassigned tasks are counted in the summary only
+                continue;
+            }
+            ManagerWorkloadResponse workload = byUser.computeIfAbsent(userId, id ->
+                    new ManagerWorkloadResponse(id, (String) row[1], (String) row[2], 0L, new LinkedHashMap<>(), 0L));
+            long count = ((Number) row[4]).longValue();
+            workload.setTaskCount(workload.getTaskCount() + count);
+            workload.getTasksByStatus().merge((String) row[3], count, Long::sum);
+        }
+        for (Object[] row : taskRepository.countOverdueByAssignee(LocalDate.now(), assigneeId)) {
+            ManagerWorkloadResponse workload = row[0] != null ? byUser.get((Long) row[0]) : null;
+            if (workload != null) {
+                workload.setOverdueCount(((Number) row[1]).longValue());
+            }
+        }
+        List<ManagerWorkloadResponse> result = new ArrayList<>(byUser.values());
+        result.sort(Comparator.comparing(ManagerWorkloadResponse::getTaskCount).reversed());
+        return result;
+    }
+
+    private DashboardSummaryResponse loadSummary(Long assigneeId) {
+        long total = 0;
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        for (Object[] row : counterRepository.sumByAssigneeAndStatus(assigneeId)) {
+            long count = ((Number) row[4]).longValue();
+            total += count;
+            byStatus.merge((String) row[3], count, Long::sum);
+        }
+
+        // Overdue depends on today's date, so it cannot be kept as a counter
+        long overdue = 0;
+        for (Object[] row : taskRepository.countOverdueByAssignee(LocalDate.now(), assigneeId)) {
+            overdue += ((Number) row[1]).longValue();
+        }
+
+        Map<String, Long> byLicenseType = new LinkedHashMap<>();
+        for (Object[] row : counterRepository.sumByLicenseType(assigneeId)) {
+            byLicenseType.put((String) row[0], ((Number) row[1]).longValue());
+        }
+
+        Map<String, Long> paymentsByStatus = new LinkedHashMap<>();
+        Map<String, BigDecimal> paymentAmounts = new LinkedHashMap<>();
+        for (Object[] row : paymentRepository.aggregateByStatus(assigneeId)) {
+            paymentsByStatus.put(String.valueOf(row[0]), ((Number) row[1]).longValue());
+            paymentAmounts.put(String.valueOf(row[0]), (BigDecimal) row[2]);
+        }
+
+        return new DashboardSummaryResponse(total, overdue, byStatus, byLicenseType, paymentsByStatus,
+                paymentAmounts, LocalDateTime.now());
+    }
+
+    private Long scopeFor(String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        boolean seesAll = user.getRoles() != null
+                && (user.getRoles().contains("ADMIN") || user.getRoles().contains("MANAGER"));
+        return seesAll ? ALL : user.getId();
+    }
+}
@@ -0,0 +1,107 @@
+package com.licensing.portal.service;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * First-page previews and plain text of uploaded documents. PDFs go through
+ * PDFBox, images through ImageIO; other types get neither.
+ */
+@Service
+public class DocumentContentExtractor {
+
+    private static final Set<String> IMAGE_TYPES = Set.of("png", "jpg", "jpeg", "gif", "bmp");
+    private static final Set<String> TEXT_TYPES = Set.of("txt", "csv");
+
+    @Value("${documents.processing.preview-width:400}")
+    private int previewWidth;
+
+    // Caps the text kept per document; enough for search, bounded for memory
+    @Value("${documents.processing.max-text-chars:200000}")
+    private int maxTextChars;
+
+    public Optional<BufferedImage> renderPreview(Path file, String extension) throws IOException {
+        String type = normalize(extension);
+        if ("pdf".equals(type)) {
+            try (PDDocument pdf = Loader.loadPDF(file.toFile())) {
+                if (pdf.getNumberOfPages() == 0) {
+                    return Optional.empty();
+                }
+                PDPage page = pdf.getPage(0);
+                // Render straight at the preview width instead of scaling a full-size page
+                float dpi = previewWidth * 72f / page.getMediaBox().getWidth();
+                return Optional.of(new PDFRenderer(pdf).renderImageWithDPI(0, dpi, ImageType.RGB));
+            }
+        }
+        if (IMAGE_TYPES.contains(type)) {
+            BufferedImage image = ImageIO.read(file.toFile());
+            return image == null ? Optional.empty() : Optional.of(scale(image));
+        }
+        return Optional.empty();
+    }
+
+    public Optional<String> extractText(Path file, String extension) throws IOException {
+        String type = normalize(extension);
+        if ("pdf".equals(type)) {
+            try (PDDocument pdf = Loader.loadPDF(file.toFile())) {
+                String text = new PDFTextStripper().getText(pdf);
+                return Optional.of(truncate(text));
+            }
+        }
+        if (TEXT_TYPES.contains(type)) {
+            char[] buffer = new char[maxTextChars];
+            int length = 0;
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                int read;
+                while (length < buffer.length && (read = reader.read(buffer, length, buffer.length - length)) != -1) {
+                    length += read;
+                }
+            }
+            return Optional.of(new String(buffer, 0, length));
+        }
+        return Optional.empty();
+    }
+
+    private BufferedImage scale(BufferedImage image) {
+        if (image.getWidth() <= previewWidth) {
+            return image;
+        }
+        int height = Math.max(1, image.getHeight() * previewWidth / image.getWidth());
+        BufferedImage scaled = new BufferedImage(previewWidth, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, previewWidth, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private String truncate(String text) {
+        return text.length() > maxTextChars ? text.substring(0, maxTextChars) : text;
+    }
+
+    private String normalize(String extension) {
+        return extension == null ? "" : extension.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,259 @@
+package com.licensing.portal.service;
+
+import com.licensing.portal.model.Document;
+import com.licensing.portal.model.Document.DocumentStatus;
+import com.licensing.portal.repository.DocumentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Moves uploaded documents through scan, preview and text extraction off the
+ * request thread. The documents table is the queue: uploads submit right after
+ * commit, and a periodic sweep picks up whatever was rejected by the full
+ * executor, is due for a retry, or was left behind by a node that died.
+ */
+@Service
+public class DocumentProcessingPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentProcessingPipeline.class);
+
+    private static final DocumentScanner ACCEPT_ALL = (file, fileName) -> DocumentScanner.ScanResult.ok();
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private DocumentStorage documentStorage;
+
+    @Autowired
+    private DocumentContentExtractor contentExtractor;
+
+    @Autowired
+    private ObjectProvider<DocumentScanner> scannerProvider;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ThreadPoolTaskExecutor executor;
+
+    private final Path tempLocation;
+
+    // Ids handed to the executor and not finished yet, so the sweep does not queue them twice
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder quarantined = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    @Value("${documents.processing.max-attempts:3}")
+    private int maxAttempts;
+
+    // Delay before the first retry; doubles with every further attempt
+    @Value("${documents.processing.retry-backoff:PT1M}")
+    private Duration retryBackoff;
+
+    // A document PROCESSING for longer than this is assumed abandoned
+    @Value("${documents.processing.stale-after:PT15M}")
+    private Duration staleAfter;
+
+    public DocumentProcessingPipeline(PlatformTransactionManager transactionManager,
+            @Qualifier("documentProcessingExecutor") ThreadPoolTaskExecutor executor,
+            @Value("${documents.temp-dir:uploads/tmp}") String tempDir) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+        this.tempLocation = Paths.get(tempDir).toAbsolutePath().normalize();
+    }
+
+    // Never blocks: when the queue is full the document waits for the next sweep
+    public void submit(Long documentId) {
+        if (!inFlight.add(documentId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    process(documentId);
+                } finally {
+                    inFlight.remove(documentId);
+                }
+            });
+            submitted.increment();
+        } catch (TaskRejectedException ex) {
+            inFlight.remove(documentId);
+            rejected.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${documents.processing.sweep-interval:PT30S}",
+            initialDelayString = "${documents.processing.sweep-interval:PT30S}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer released = transactionTemplate.execute(status ->
+                documentRepository.releaseStaleProcessing(now.minus(staleAfter), maxAttempts, now.plus(retryBackoff)));
+        if (released != null && released > 0) {
+            logger.warn("Released {} documents left in PROCESSING for more than {} (requeued, or failed "
+                    + "after {} attempts)", released, staleAfter, maxAttempts);
+        }
+
+        // Only ask for as many as the executor can take right now
+        int capacity = executor.getQueueCapacity() - executor.getQueueSize();
+        if (capacity <= 0) {
+            return;
+        }
+        List<Long> ready = documentRepository.findIdsReadyForProcessing(now, PageRequest.of(0, capacity));
+        ready.forEach(this::submit);
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("queued", (long) executor.getQueueSize());
+        stats.put("queueCapacity", (long) executor.getQueueCapacity());
+        stats.put("active", (long) executor.getActiveCount());
+        stats.put("submitted", submitted.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("processed", processed.sum());
+        stats.put("quarantined", quarantined.sum());
+        stats.put("retried", retried.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+
+    private void process(Long documentId) {
+        Integer claimed = transactionTemplate.execute(status ->
+                documentRepository.claimForProcessing(documentId, LocalDateTime.now()));
+        if (claimed == null || claimed == 0) {
+            return;
+        }
+        Document document = documentRepository.findById(documentId).orElse(null);
+        if (document == null) {
+            return;
+        }
+
+        String previewKey = null;
+        try {
+            Path copy = null;
+            Path file = documentStorage.localFile(document.getFilePath()).orElse(null);
+            if (file == null) {
+                copy = downloadToTemp(document.getFilePath());
+                file = copy;
+            }
+            try {
+                DocumentScanner.ScanResult scan = scannerProvider.getIfAvailable(() -> ACCEPT_ALL)
+                        .scan(file, document.getFileName());
+                if (!scan.clean()) {
+                    finish(documentId, DocumentStatus.QUARANTINED, null, null, scan.detail());
+                    quarantined.increment();
+                    return;
+                }
+
+                Optional<BufferedImage> preview = contentExtractor.renderPreview(file, document.getDocumentType());
+                if (preview.isPresent()) {
+                    previewKey = storePreview(documentId, preview.get());
+                }
+                String text = contentExtractor.extractText(file, document.getDocumentType()).orElse(null);
+
+                if (!finish(documentId, DocumentStatus.PROCESSED, previewKey, text, null) && previewKey != null) {
+                    // Deleted while we were working on it
+                    documentStorage.delete(previewKey);
+                }
+                processed.increment();
+            } finally {
+                if (copy != null) {
+                    Files.deleteIfExists(copy);
+                }
+            }
+        } catch (Exception ex) {
+            logger.warn("Processing document {} failed: {}", documentId, ex.toString());
+            retryOrFail(documentId, ex);
+        }
+    }
+
+    // Records the outcome if the document still exists and is still ours
+    private boolean finish(Long documentId, DocumentStatus outcome, String previewKey, String text, String error) {
+        Boolean updated = transactionTemplate.execute(status -> documentRepository.findById(documentId)
+                .filter(document -> document.getStatus() == DocumentStatus.PROCESSING)
+                .map(document -> {
+                    document.setStatus(outcome);
+                    document.setPreviewKey(previewKey);
+                    document.setExtractedText(text);
+                    document.setProcessingError(error);
+                    document.setNextAttemptAt(null);
+                    return true;
+                })
+                .orElse(false));
+        return Boolean.TRUE.equals(updated);
+    }
+
+    private void retryOrFail(Long documentId, Exception cause) {
+        String message = cause.toString();
+        String error = message.length() > 1000 ? message.substring(0, 1000) : message;
+        transactionTemplate.executeWithoutResult(status -> documentRepository.findById(documentId)
+                .filter(document -> document.getStatus() == DocumentStatus.PROCESSING)
+                .ifPresent(document -> {
+                    document.setProcessingError(error);
+                    int attempts = document.getProcessingAttempts();
+                    if (attempts < maxAttempts) {
+                        document.setStatus(DocumentStatus.UPLOADED);
+                        document.setNextAttemptAt(LocalDateTime.now()
+                                .plus(retryBackoff.multipliedBy(1L << (attempts - 1))));
+                        retried.increment();
+                    } else {
+                        document.setStatus(DocumentStatus.FAILED);
+                        failed.increment();
+                    }
+                }));
+    }
+
+    private String storePreview(Long documentId, BufferedImage image) throws IOException {
+        Path temp = tempLocation.resolve(".preview-" + UUID.randomUUID() + ".png");
+        try {
+            ImageIO.write(image, "png", temp.toFile());
+            String key = "previews/" + documentId + ".png";
+            documentStorage.put(key, temp);
+            return key;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Remote storage: PDFBox and ImageIO want a file, so fetch a local copy
+    private Path downloadToTemp(String key) throws IOException {
+        Path temp = tempLocation.resolve(".processing-" + UUID.randomUUID() + ".tmp");
+        try (InputStream in = documentStorage.get(key)) {
+            Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return temp;
+    }
+}
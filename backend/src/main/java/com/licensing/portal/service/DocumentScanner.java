@@ -0,0 +1,24 @@
+package com.licensing.portal.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Hook for an antivirus or content policy check on uploaded documents. Register a
+ * bean implementing it (e.g. a ClamAV client); without one every file is accepted.
+ */
+public interface DocumentScanner {
+
+    ScanResult scan(Path file, String fileName) throws IOException;
+
+    record ScanResult(boolean clean, String detail) {
+
+        public static ScanResult ok() {
+            return new ScanResult(true, null);
+        }
+
+        public static ScanResult infected(String detail) {
+            return new ScanResult(false, detail);
+        }
+    }
+}
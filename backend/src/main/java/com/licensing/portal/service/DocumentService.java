@@ -3,11 +3,16 @@ package com.licensing.portal.service;
 import com.licensing.portal.model.Document;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.util.List;
 
 public interface DocumentService {
     Document uploadDocument(Long taskId, MultipartFile file, String username);
 
+    // Streams the content straight to storage; contentLength is -1 when unknown
+    Document uploadDocument(Long taskId, InputStream content, String fileName, String contentType,
+            long contentLength, String username);
+
     List<Document> getDocumentsByTaskId(Long taskId);
 
     void deleteDocument(Long documentId);
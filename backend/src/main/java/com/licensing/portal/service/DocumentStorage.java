@@ -0,0 +1,38 @@
+package com.licensing.portal.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Where document bytes live. Keys are relative paths such as blobs/ab/cd/abcd...;
+ * the backend is chosen with documents.storage.type (local or s3).
+ */
+public interface DocumentStorage {
+
+    // Stores the content of a local file under key, replacing any existing object.
+    // The source file is consumed (moved or deleted).
+    void put(String key, Path source) throws IOException;
+
+    boolean exists(String key) throws IOException;
+
+    long size(String key) throws IOException;
+
+    InputStream get(String key) throws IOException;
+
+    // Bytes start..end inclusive
+    InputStream getRange(String key, long start, long end) throws IOException;
+
+    void move(String fromKey, String toKey) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    // Local file behind the key, when there is one, so it can be sent with sendfile
+    Optional<Path> localFile(String key);
+
+    // Time-limited URL the client can download from directly, if the backend supports it
+    Optional<URI> presignedDownloadUrl(String key, String fileName, String contentType, Duration ttl);
+}
@@ -0,0 +1,285 @@
+package com.licensing.portal.service;
+
+import com.licensing.portal.model.OutboxAttachment;
+import com.licensing.portal.model.OutboxEmail;
+import com.licensing.portal.model.OutboxEmail.OutboxStatus;
+import com.licensing.portal.repository.OutboxEmailRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drains the email outbox. Each poll claims a batch of due emails (SKIP LOCKED, so
+ * several nodes can run it), sends the whole batch over one SMTP connection, and
+ * records per-message results: sent, retry later with exponential backoff, or
+ * dead-lettered when the message can never be delivered.
+ */
+@Service
+public class EmailDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailDispatcher.class);
+
+    @Autowired
+    private OutboxEmailRepository outboxEmailRepository;
+
+    @Autowired
+    private DocumentStorage documentStorage;
+
+    private final JavaMailSender mailSender;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Timer smtpSend;
+
+    @Value("${spring.mail.username}")
+    private String fromEmail;
+
+    @Value("${email.outbox.batch-size:20}")
+    private int batchSize;
+
+    // Office365 accepts 30 messages a minute per mailbox; this is per node
+    @Value("${email.outbox.rate-per-minute:30}")
+    private int ratePerMinute;
+
+    @Value("${email.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    // Delay before the first retry; doubles with every further attempt up to max-backoff
+    @Value("${email.outbox.retry-backoff:PT1M}")
+    private Duration retryBackoff;
+
+    @Value("${email.outbox.max-backoff:PT1H}")
+    private Duration maxBackoff;
+
+    @Value("${email.outbox.stale-after:PT10M}")
+    private Duration staleAfter;
+
+    @Value("${email.outbox.retention:P30D}")
+    private Duration retention;
+
+    // Token bucket for the send rate, refilled on every poll
+    private double permits;
+    private long lastRefill = System.nanoTime();
+
+    public EmailDispatcher(JavaMailSender mailSender, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.smtpSend = meterRegistry.timer("email.smtp.send");
+    }
+
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval:PT5S}")
+    public synchronized void dispatch() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer released = transactionTemplate.execute(status ->
+                outboxEmailRepository.releaseStaleSending(now.minus(staleAfter)));
+        if (released != null && released > 0) {
+            logger.warn("Requeued {} emails left in SENDING for more than {}", released, staleAfter);
+        }
+
+        refillPermits();
+        int limit = (int) Math.min(permits, batchSize);
+        if (limit <= 0) {
+            return;
+        }
+        List<Long> ids = transactionTemplate.execute(status -> {
+            List<Long> due = outboxEmailRepository.lockDueIds(now, limit);
+            if (!due.isEmpty()) {
+                outboxEmailRepository.markSending(due, now);
+            }
+            return due;
+        });
+        if (ids == null || ids.isEmpty()) {
+            return;
+        }
+        permits -= ids.size();
+
+        send(outboxEmailRepository.findWithAttachments(ids));
+    }
+
+    // Sent emails are kept for a while for troubleshooting, dead letters until someone looks at them
+    @Scheduled(cron = "0 30 3 * * *")
+    public void purgeSent() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        Integer purged = transactionTemplate.execute(status -> {
+            outboxEmailRepository.deleteSentAttachmentsBefore(cutoff);
+            return outboxEmailRepository.deleteSentBefore(cutoff);
+        });
+        logger.info("Purged {} sent emails from the outbox", purged);
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        for (OutboxStatus status : OutboxStatus.values()) {
+            stats.put(status.name(), 0L);
+        }
+        for (Object[] row : outboxEmailRepository.countByStatus()) {
+            stats.put(((OutboxStatus) row[0]).name(), (Long) row[1]);
+        }
+        return stats;
+    }
+
+    private void send(List<OutboxEmail> emails) {
+        Map<Long, Exception> failures = new LinkedHashMap<>();
+        Map<MimeMessage, Long> messages = new LinkedHashMap<>();
+        for (OutboxEmail email : emails) {
+            try {
+                messages.put(toMimeMessage(email), email.getId());
+            } catch (MessagingException | MailException ex) {
+                failures.put(email.getId(), new MailPreparationException(ex.getMessage(), ex));
+            }
+        }
+
+        if (!messages.isEmpty()) {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                // JavaMailSenderImpl sends the whole array over a single connection
+                mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException ex) {
+                Map<Object, Exception> failed = ex.getFailedMessages();
+                if (failed.isEmpty()) {
+                    messages.values().forEach(id -> failures.put(id, ex));
+                }
+                failed.forEach((message, cause) -> failures.put(messages.get(message), cause));
+            } catch (MailException ex) {
+                // Connection or authentication problem: nothing was sent
+                messages.values().forEach(id -> failures.put(id, ex));
+            } finally {
+                sample.stop(smtpSend);
+            }
+        }
+
+        recordResults(emails, failures);
+    }
+
+    private void recordResults(List<OutboxEmail> emails, Map<Long, Exception> failures) {
+        Map<OutboxStatus, Integer> outcomes = new EnumMap<>(OutboxStatus.class);
+        transactionTemplate.executeWithoutResult(status -> {
+            outcomes.clear();
+            LocalDateTime now = LocalDateTime.now();
+            List<String> sentAttachments = new ArrayList<>();
+            for (OutboxEmail email : outboxEmailRepository.findAllById(
+                    emails.stream().map(OutboxEmail::getId).toList())) {
+                Exception failure = failures.get(email.getId());
+                email.setAttempts(email.getAttempts() + 1);
+                if (failure == null) {
+                    email.setStatus(OutboxStatus.SENT);
+                    email.setSentAt(now);
+                    email.setLastError(null);
+                    email.getAttachments().forEach(attachment -> sentAttachments.add(attachment.getStorageKey()));
+                    outcomes.merge(OutboxStatus.SENT, 1, Integer::sum);
+                    continue;
+                }
+
+                String message = failure.toString();
+                email.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+                if (isPermanent(failure) || email.getAttempts() >= maxAttempts) {
+                    email.setStatus(OutboxStatus.DEAD);
+                    outcomes.merge(OutboxStatus.DEAD, 1, Integer::sum);
+                    logger.error("Email {} to {} moved to dead letters after {} attempts: {}",
+                            email.getId(), email.getRecipient(), email.getAttempts(), message);
+                } else {
+                    email.setStatus(OutboxStatus.PENDING);
+                    outcomes.merge(OutboxStatus.PENDING, 1, Integer::sum);
+                    email.setNextAttemptAt(now.plus(backoff(email.getAttempts())));
+                    logger.warn("Email {} to {} failed (attempt {}), retrying: {}",
+                            email.getId(), email.getRecipient(), email.getAttempts(), message);
+                }
+            }
+
+            // Attachments of delivered emails are no longer needed
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    for (String key : sentAttachments) {
+                        try {
+                            documentStorage.delete(key);
+                        } catch (IOException | RuntimeException ex) {
+                            logger.warn("Could not delete sent attachment {}", key, ex);
+                        }
+                    }
+                }
+            });
+        });
+        // Counted once the results are committed; PENDING here means a retry is scheduled
+        outcomes.forEach((outcome, count) -> meterRegistry.counter("email.delivery",
+                "outcome", outcome == OutboxStatus.PENDING ? "retry" : outcome.name().toLowerCase()).increment(count));
+    }
+
+    private MimeMessage toMimeMessage(OutboxEmail email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        boolean multipart = !email.getAttachments().isEmpty();
+        MimeMessageHelper helper = new MimeMessageHelper(message, multipart, "UTF-8");
+        helper.setFrom(fromEmail);
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getBody());
+        for (OutboxAttachment attachment : email.getAttachments()) {
+            String contentType = attachment.getContentType() != null
+                    ? attachment.getContentType()
+                    : "application/octet-stream";
+            // Read from storage only when the message is written to the SMTP connection
+            helper.addAttachment(attachment.getFileName(),
+                    () -> documentStorage.get(attachment.getStorageKey()), contentType);
+        }
+        return message;
+    }
+
+    // Bad addresses and malformed messages fail the same way on every attempt
+    private boolean isPermanent(Exception failure) {
+        Throwable cause = failure;
+        while (cause != null) {
+            if (cause instanceof SendFailedException sendFailed
+                    && sendFailed.getInvalidAddresses() != null
+                    && sendFailed.getInvalidAddresses().length > 0) {
+                return true;
+            }
+            if (cause instanceof MailParseException || cause instanceof MailPreparationException) {
+                return true;
+            }
+            cause = cause.getCause();
+        }
+        return false;
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private void refillPermits() {
+        long now = System.nanoTime();
+        permits = Math.min(batchSize, permits + (now - lastRefill) * ratePerMinute / 60_000_000_000d);
+        lastRefill = now;
+    }
+}
@@ -1,69 +1,143 @@
 package com.licensing.portal.service;
 
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import com.licensing.portal.model.OutboxAttachment;
+import com.licensing.portal.model.OutboxEmail;
+import com.licensing.portal.repository.OutboxEmailRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import jakarta.mail.internet.MimeMessage;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.web.multipart.MultipartFile;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
 
+/**
+ * Queues emails in the outbox table as part of the caller's transaction; nothing
+ * talks to SMTP here. EmailDispatcher delivers them in the background.
+ */
 @Service
+@Timed("portal.service")
 public class EmailService {
 
-    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(EmailService.class);
+    private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
+
+    private final OutboxEmailRepository outboxEmailRepository;
+
+    private final DocumentStorage documentStorage;
+
+    private final Path tempLocation;
 
-    private final JavaMailSender emailSender;
+    private final Counter queued;
 
-    public EmailService(JavaMailSender emailSender) {
-        this.emailSender = emailSender;
+    public EmailService(OutboxEmailRepository outboxEmailRepository, DocumentStorage documentStorage,
+            @Value("${documents.temp-dir:uploads/tmp}") String tempDir, MeterRegistry meterRegistry) {
+        this.outboxEmailRepository = outboxEmailRepository;
+        this.documentStorage = documentStorage;
+        this.tempLocation = Paths.get(tempDir).toAbsolutePath().normalize();
+        this.queued = meterRegistry.counter("email.queued");
     }
 
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    @Transactional
+    public Long queueEmail(String to, String subject, String text) {
+        OutboxEmail email = newEmail(to, subject, text);
+        Long id = outboxEmailRepository.save(email).getId();
+        countQueuedAfterCommit();
+        logger.info("Queued email {} to: {}", id, to);
+        return id;
+    }
 
-    public void sendEmail(String to, String subject, String text) {
-        try {
-            log.info("Sending email to: {}", to);
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(text);
-            emailSender.send(message);
-            log.info("Email sent successfully to: {}", to);
-        } catch (Exception e) {
-            log.error("Failed to send email to: {}", to, e);
-            throw new RuntimeException("Failed to send email", e);
+    @Transactional
+    public Long queueEmailWithAttachments(String to, String subject, String text, MultipartFile[] files) {
+        OutboxEmail email = newEmail(to, subject, text);
+        List<String> storedKeys = new ArrayList<>();
+        // Attachment bytes go to document storage; drop them again if the caller rolls back
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    storedKeys.forEach(EmailService.this::deleteQuietly);
+                }
+            }
+        });
+
+        if (files != null) {
+            for (MultipartFile file : files) {
+                if (!file.isEmpty()) {
+                    String key = "outbox/" + UUID.randomUUID();
+                    storeAttachment(file, key);
+                    storedKeys.add(key);
+
+                    OutboxAttachment attachment = new OutboxAttachment();
+                    attachment.setEmail(email);
+                    attachment.setFileName(file.getOriginalFilename());
+                    attachment.setContentType(file.getContentType());
+                    attachment.setStorageKey(key);
+                    attachment.setSize(file.getSize());
+                    email.getAttachments().add(attachment);
+                }
+            }
         }
+
+        Long id = outboxEmailRepository.save(email).getId();
+        countQueuedAfterCommit();
+        logger.info("Queued email {} with {} attachments to: {}", id, email.getAttachments().size(), to);
+        return id;
+    }
+
+    private void countQueuedAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                queued.increment();
+            }
+        });
     }
 
-    public void sendEmailWithAttachments(String to, String subject, String text, MultipartFile[] files) {
+    private OutboxEmail newEmail(String to, String subject, String text) {
+        OutboxEmail email = new OutboxEmail();
+        email.setRecipient(to);
+        email.setSubject(subject);
+        email.setBody(text);
+        email.setStatus(OutboxEmail.OutboxStatus.PENDING);
+        email.setNextAttemptAt(LocalDateTime.now());
+        return email;
+    }
+
+    private void storeAttachment(MultipartFile file, String key) {
+        Path temp = tempLocation.resolve(".attachment-" + UUID.randomUUID() + ".tmp");
         try {
-            log.info("Sending email with attachments to: {}", to);
-            MimeMessage message = emailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-
-            helper.setFrom(fromEmail);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(text);
-
-            if (files != null) {
-                for (MultipartFile file : files) {
-                    if (!file.isEmpty()) {
-                        helper.addAttachment(file.getOriginalFilename(), file);
-                    }
-                }
+            Files.createDirectories(tempLocation);
+            file.transferTo(temp);
+            documentStorage.put(key, temp);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not store attachment " + file.getOriginalFilename(), e);
+        } finally {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                logger.warn("Could not delete temporary attachment file {}", temp);
             }
+        }
+    }
 
-            emailSender.send(message);
-            log.info("Email with attachments sent successfully to: {}", to);
-        } catch (Exception e) {
-            log.error("Failed to send email with attachments to: {}", to, e);
-            throw new RuntimeException("Failed to send email with attachments", e);
+    private void deleteQuietly(String key) {
+        try {
+            documentStorage.delete(key);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not delete attachment {} of a rolled back email", key, e);
         }
     }
 }
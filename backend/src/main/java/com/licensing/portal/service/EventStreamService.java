@@ -0,0 +1,242 @@
+package com.licensing.portal.service;
+
+import com.licensing.portal.model.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Events push channel. Connections are async servlet requests
+ * (SseEmitter), so idle subscribers hold a socket but no Tomcat worker thread.
+ * Event ids are "epoch-sequence"; a client reconnecting with Last-Event-ID gets
+ * the events it missed from a bounded replay buffer, or a resync event when they
+ * are no longer there (other node, restart, or too long ago).
+ *
+ * Events reach subscribers connected to the node that published them; with
+ * several nodes behind a load balancer the resync event and the notification
+ * count sent on every connect keep clients eventually correct.
+ */
+@Service
+public class EventStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventStreamService.class);
+
+    public static final String NOTIFICATION_COUNT = "notification-count";
+    public static final String TASK_CHANGED = "task-changed";
+    public static final String RESYNC = "resync";
+
+    // Distinguishes event ids of this process from those of a previous run or another node
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Map<Long, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    // Connected admins also receive changes to tasks they are not assigned to
+    private final Set<Long> connectedAdmins = ConcurrentHashMap.newKeySet();
+
+    private final Deque<StoredEvent> recentEvents = new ArrayDeque<>();
+
+    @Autowired
+    private UnreadNotificationCounter unreadCounter;
+
+    private final ThreadPoolTaskExecutor executor;
+
+    // Clients (EventSource) reconnect on their own when the server ends the stream
+    @Value("${sse.timeout:PT30M}")
+    private Duration timeout;
+
+    @Value("${sse.replay-buffer:1000}")
+    private int replayBufferSize;
+
+    public EventStreamService(@Qualifier("eventStreamExecutor") ThreadPoolTaskExecutor executor) {
+        this.executor = executor;
+    }
+
+    public SseEmitter subscribe(Long userId, boolean admin, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Set<SseEmitter> emitters = subscribers.computeIfAbsent(userId, id -> new CopyOnWriteArraySet<>());
+        emitters.add(emitter);
+        if (admin) {
+            connectedAdmins.add(userId);
+        }
+        Runnable remove = () -> unsubscribe(userId, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+
+        // Registered before replaying, so an event published meanwhile may arrive
+        // twice but is never lost; clients treat events as idempotent
+        replay(userId, emitter, lastEventId);
+        long unread = unreadCounter.get(userId);
+        send(userId, emitter, SseEmitter.event()
+                .name(NOTIFICATION_COUNT)
+                .data(Map.of("unread", unread), MediaType.APPLICATION_JSON));
+        return emitter;
+    }
+
+    // Pushes fresh unread counts to those of the given users that are connected.
+    // Runs after commit when called inside a transaction.
+    public void publishUnreadCounts(Collection<Long> userIds) {
+        afterCommit(() -> {
+            userIds.stream().distinct().filter(subscribers::containsKey).forEach(userId ->
+                    publish(Set.of(userId), NOTIFICATION_COUNT, Map.of("unread", unreadCounter.get(userId))));
+        });
+    }
+
+    public void publishTaskChanged(Task task) {
+        Set<Long> recipients = new LinkedHashSet<>();
+        if (task.getAssignee() != null) {
+            recipients.add(task.getAssignee().getId());
+        }
+        if (task.getCreatedBy() != null) {
+            recipients.add(task.getCreatedBy().getId());
+        }
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("taskId", task.getId());
+        data.put("title", task.getTitle());
+        data.put("status", task.getStatus());
+        afterCommit(() -> {
+            Set<Long> targets = new LinkedHashSet<>(recipients);
+            targets.addAll(connectedAdmins);
+            publish(targets, TASK_CHANGED, data);
+        });
+    }
+
+    // Comment lines keep proxies and load balancers from closing idle connections
+    // and reveal dead clients, whose emitters are then dropped
+    @Scheduled(fixedRateString = "${sse.heartbeat-interval:PT25S}")
+    public void heartbeat() {
+        subscribers.forEach((userId, emitters) -> emitters.forEach(emitter ->
+                executor.execute(() -> send(userId, emitter, SseEmitter.event().comment("heartbeat")))));
+    }
+
+    public int connectionCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void publish(Set<Long> userIds, String name, Object data) {
+        String id = epoch + "-" + sequence.incrementAndGet();
+        synchronized (recentEvents) {
+            recentEvents.addLast(new StoredEvent(id, userIds, name, data));
+            while (recentEvents.size() > replayBufferSize) {
+                recentEvents.removeFirst();
+            }
+        }
+        for (Long userId : userIds) {
+            Set<SseEmitter> emitters = subscribers.get(userId);
+            if (emitters == null) {
+                continue;
+            }
+            for (SseEmitter emitter : emitters) {
+                executor.execute(() -> send(userId, emitter, toEvent(id, name, data)));
+            }
+        }
+    }
+
+    private void replay(Long userId, SseEmitter emitter, String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return;
+        }
+        long lastSequence = sequenceOf(lastEventId);
+        List<StoredEvent> missed = new ArrayList<>();
+        boolean complete;
+        synchronized (recentEvents) {
+            long oldest = recentEvents.isEmpty() ? sequence.get() + 1 : sequenceOf(recentEvents.peekFirst().id());
+            // Everything after lastSequence must still be in the buffer
+            complete = lastSequence >= 0 && lastSequence >= oldest - 1;
+            if (complete) {
+                for (StoredEvent event : recentEvents) {
+                    if (sequenceOf(event.id()) > lastSequence && event.userIds().contains(userId)) {
+                        missed.add(event);
+                    }
+                }
+            }
+        }
+        if (!complete) {
+            send(userId, emitter, SseEmitter.event().name(RESYNC).data(Map.of(), MediaType.APPLICATION_JSON));
+            return;
+        }
+        for (StoredEvent event : missed) {
+            send(userId, emitter, toEvent(event.id(), event.name(), event.data()));
+        }
+    }
+
+    // -1 for ids issued by another process
+    private long sequenceOf(String eventId) {
+        int dash = eventId.lastIndexOf('-');
+        if (dash < 0 || !eventId.substring(0, dash).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    private SseEmitter.SseEventBuilder toEvent(String id, String name, Object data) {
+        return SseEmitter.event().id(id).name(name).data(data, MediaType.APPLICATION_JSON);
+    }
+
+    private void send(Long userId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException ex) {
+            logger.debug("Dropping SSE subscriber of user {}: {}", userId, ex.getMessage());
+            unsubscribe(userId, emitter);
+            emitter.completeWithError(ex);
+        }
+    }
+
+    private void unsubscribe(Long userId, SseEmitter emitter) {
+        subscribers.computeIfPresent(userId, (id, emitters) -> {
+            emitters.remove(emitter);
+            if (emitters.isEmpty()) {
+                connectedAdmins.remove(id);
+                return null;
+            }
+            return emitters;
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record StoredEvent(String id, Set<Long> userIds, String name, Object data) {
+    }
+}
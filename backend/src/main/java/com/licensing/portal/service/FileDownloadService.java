@@ -0,0 +1,154 @@
+package com.licensing.portal.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Sends a stored document with HTTP Range and conditional GET support. Files on
+ * local storage go through Tomcat's sendfile when the connector offers it,
+ * otherwise through FileChannel.transferTo, so they are never copied through a
+ * heap buffer; remote objects are streamed with a ranged read.
+ */
+@Service
+public class FileDownloadService {
+
+    @Autowired
+    private DocumentStorage storage;
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // length and lastModified describe the stored object; for local files they are
+    // read from the file itself. length is -1 when unknown (asked from the storage).
+    public void serve(String key, long length, long lastModified, String contentType, String fileName,
+            String etag, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file = storage.localFile(key).orElse(null);
+        if (file != null) {
+            if (!Files.isReadable(file)) {
+                throw new RuntimeException("File not found " + fileName);
+            }
+            length = Files.size(file);
+            lastModified = Files.getLastModifiedTime(file).toMillis();
+        } else if (length < 0) {
+            length = storage.size(key);
+        }
+
+        // Let clients keep a copy but revalidate it every time (Spring Security
+        // would otherwise mark the response no-store)
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+
+        // Sets ETag/Last-Modified and answers 304 if the client copy is current
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(contentType);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(fileName, StandardCharsets.UTF_8)
+                .build()
+                .toString());
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (StringUtils.hasText(rangeHeader) && ifRangeMatches(request, etag, lastModified)) {
+            // A malformed or unsupported Range header is ignored (RFC 7233 3.1), as are
+            // multi-range requests; both get the whole file
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException ex) {
+                ranges = List.of();
+            }
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                if (!isSatisfiable(range, length)) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = length == 0 ? 0 : end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        if (file == null) {
+            try (InputStream in = storage.getRange(key, start, end)) {
+                OutputStream out = response.getOutputStream();
+                in.transferTo(out);
+                out.flush();
+            }
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat writes the file with sendfile once the request returns
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                position += sent;
+                remaining -= sent;
+            }
+            out.flush();
+        }
+    }
+
+    // A syntactically valid range is unsatisfiable when it starts past the end of the
+    // file, or is a zero-length suffix ("bytes=-0"), or the file is empty
+    private boolean isSatisfiable(HttpRange range, long length) {
+        return length > 0 && range.getRangeStart(length) < length;
+    }
+
+    // A Range request with a stale If-Range validator gets the whole (changed) file
+    private boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (!StringUtils.hasText(ifRange)) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        long ifRangeDate = request.getDateHeader(HttpHeaders.IF_RANGE);
+        return ifRangeDate != -1 && lastModified / 1000 <= ifRangeDate / 1000;
+    }
+}
@@ -1,23 +1,46 @@
 package com.licensing.portal.service;
 
-import com.licensing.portal.model.Store;
+import com.licensing.portal.dto.RenewalRunResult;
+import com.licensing.portal.model.Notification;
+import com.licensing.portal.model.RenewalCheckpoint;
 import com.licensing.portal.model.Task;
 import com.licensing.portal.model.User;
+import com.licensing.portal.repository.RenewalCheckpointRepository;
 import com.licensing.portal.repository.StoreRepository;
+import com.licensing.portal.repository.StoreRepository.RenewalCandidate;
 import com.licensing.portal.repository.TaskRepository;
 import com.licensing.portal.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDate;
-import java.util.Arrays;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Service
 public class LicenseRenewalScheduler {
 
+    private static final Logger logger = LoggerFactory.getLogger(LicenseRenewalScheduler.class);
+
+    private static final String LOCK_NAME = "license-renewal";
+
     @Autowired
     private StoreRepository storeRepository;
 
@@ -27,90 +50,201 @@ public class LicenseRenewalScheduler {
     @Autowired
     private UserRepository userRepository;
 
-    // Run every day at 9:00 AM
+    @Autowired
+    private RenewalCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private SchedulerLockService schedulerLockService;
+
+    @Autowired
+    private StoreExpiryIndex storeExpiryIndex;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private TaskStatusCounterService taskCounters;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ThreadPoolTaskExecutor renewalExecutor;
+
+    private final MeterRegistry meterRegistry;
+
+    // Width of a store-id partition; each partition commits on its own
+    @Value("${renewal.partition-size:1000}")
+    private long partitionSize;
+
+    // Renewed after every partition; if this node dies, another one can take over once it lapses
+    @Value("${renewal.lock-lease:PT10M}")
+    private Duration lockLease;
+
+    // Oldest store expiry index a run may skip partitions on; older ones are reloaded first
+    @Value("${renewal.expiry-index-max-age:PT5M}")
+    private Duration expiryIndexMaxAge;
+
+    public LicenseRenewalScheduler(PlatformTransactionManager transactionManager,
+            @Qualifier("renewalExecutor") ThreadPoolTaskExecutor renewalExecutor, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.renewalExecutor = renewalExecutor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Run every day at 9:00 AM on whichever node gets the lock. Rerunning on the
+    // same day (e.g. from DebugController) only processes partitions without a checkpoint.
     @Scheduled(cron = "0 0 9 * * *")
-    @Transactional
-    public void createRenewalTasks() {
-        System.out.println("Running license renewal task scheduler at " + LocalDate.now());
+    public RenewalRunResult createRenewalTasks() {
+        Optional<SchedulerLockService.Lease> lease = schedulerLockService.tryAcquire(LOCK_NAME, lockLease);
+        if (lease.isEmpty()) {
+            logger.info("License renewal run skipped: another run holds the lock");
+            return RenewalRunResult.notAcquired();
+        }
+        try (SchedulerLockService.Lease held = lease.get()) {
+            return runRenewal(held);
+        }
+    }
 
+    private RenewalRunResult runRenewal(SchedulerLockService.Lease lease) {
+        long startedAt = System.nanoTime();
         LocalDate today = LocalDate.now();
-        LocalDate threeMonthsFromNow = today.plusMonths(3);
+        logger.info("Running license renewal task scheduler at {}", today);
 
         // Find default assignee (prefer manager, fallback to admin)
         User defaultAssignee = userRepository.findByUsername("manager")
                 .orElse(userRepository.findByUsername("admin").orElse(null));
+        Long assigneeId = defaultAssignee != null ? defaultAssignee.getId() : null;
+
+        List<Long> partitionStarts = partitionStarts();
+        Set<Long> done = checkpointRepository.findByRunDate(today).stream()
+                .map(RenewalCheckpoint::getRangeStart)
+                .collect(Collectors.toSet());
+
+        // Partitions without any expiring store are skipped without a query. The index only
+        // follows this node's writes between its hourly reloads, so stores changed on another
+        // node would be skipped: reload it unless that just happened.
+        storeExpiryIndex.rebuildIfOlderThan(expiryIndexMaxAge);
+        NavigableSet<Long> expiringIds = storeExpiryIndex.findExpiringStoreIds(today.plusMonths(3));
+
+        List<CompletableFuture<PartitionOutcome>> futures = new ArrayList<>();
+        for (Long rangeStart : partitionStarts) {
+            if (done.contains(rangeStart)
+                    || expiringIds.subSet(rangeStart, rangeStart + partitionSize).isEmpty()) {
+                continue;
+            }
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> runPartition(lease, today, rangeStart, rangeStart + partitionSize, assigneeId),
+                    renewalExecutor));
+        }
 
-        // Process alcohol licenses
-        processAlcoholLicenses(threeMonthsFromNow, defaultAssignee);
-
-        // Process tobacco licenses
-        processTobaccoLicenses(threeMonthsFromNow, defaultAssignee);
+        int candidates = 0;
+        int created = 0;
+        int failed = 0;
+        for (CompletableFuture<PartitionOutcome> future : futures) {
+            PartitionOutcome outcome = future.join();
+            candidates += outcome.candidates();
+            created += outcome.created();
+            failed += outcome.failed() ? 1 : 0;
+        }
 
-        System.out.println("License renewal task scheduler completed");
+        long durationMs = (System.nanoTime() - startedAt) / 1_000_000;
+        meterRegistry.timer("renewal.run").record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("renewal.tasks.created").increment(created);
+        meterRegistry.counter("renewal.partitions.failed").increment(failed);
+        int skipped = partitionStarts.size() - futures.size();
+        if (!lease.isHeld()) {
+            logger.error("License renewal run stopped early: the lock was taken over by another node. "
+                    + "{} partitions were left for the next run", failed);
+        }
+        logger.info("License renewal task scheduler completed: {} tasks created for {} candidates in {} ms "
+                + "({} partitions, {} skipped as done or empty, {} failed)",
+                created, candidates, durationMs, partitionStarts.size(), skipped, failed);
+        RenewalRunResult result = new RenewalRunResult(partitionStarts.size(), skipped, failed, candidates, created,
+                durationMs);
+        result.setLockLost(!lease.isHeld());
+        return result;
     }
 
-    private void processAlcoholLicenses(LocalDate threeMonthsFromNow, User defaultAssignee) {
-        List<Store> expiringStores = storeRepository
-                .findByIsActiveTrueAndAlcoholLicenseExpiryLessThanEqual(threeMonthsFromNow);
-
-        for (Store store : expiringStores) {
-            if (store.getAlcoholLicenseExpiry() != null) {
-                createRenewalTaskIfNeeded(store, Task.LicenseType.ALCOHOL, defaultAssignee);
-            }
+    // Partition boundaries are aligned to multiples of partitionSize so they stay
+    // the same across reruns even if stores are added in between
+    private List<Long> partitionStarts() {
+        Long minId = storeRepository.findMinActiveId();
+        Long maxId = storeRepository.findMaxActiveId();
+        List<Long> starts = new ArrayList<>();
+        if (minId == null || maxId == null) {
+            return starts;
+        }
+        for (long start = Math.floorDiv(minId, partitionSize) * partitionSize; start <= maxId; start += partitionSize) {
+            starts.add(start);
         }
+        return starts;
     }
 
-    private void processTobaccoLicenses(LocalDate threeMonthsFromNow, User defaultAssignee) {
-        List<Store> expiringStores = storeRepository
-                .findByIsActiveTrueAndTobaccoLicenseExpiryLessThanEqual(threeMonthsFromNow);
-
-        for (Store store : expiringStores) {
-            if (store.getTobaccoLicenseExpiry() != null) {
-                createRenewalTaskIfNeeded(store, Task.LicenseType.TOBACCO, defaultAssignee);
-            }
+    private PartitionOutcome runPartition(SchedulerLockService.Lease lease, LocalDate today, long fromId, long toId,
+            Long assigneeId) {
+        if (!lease.isHeld()) {
+            return new PartitionOutcome(0, 0, true);
+        }
+        try {
+            // Tasks and the checkpoint row commit together, so a partition is either
+            // fully done or left for the next run
+            PartitionOutcome outcome = transactionTemplate.execute(status -> {
+                // Another node that takes over waits for this partition to commit and then
+                // sees its checkpoint; once the lease is gone nothing more is written
+                if (!lease.holdInTransaction()) {
+                    return new PartitionOutcome(0, 0, true);
+                }
+                List<RenewalCandidate> candidates = storeRepository
+                        .findRenewalCandidates(today.plusMonths(3), fromId, toId);
+                User assignee = assigneeId != null ? userRepository.getReferenceById(assigneeId) : null;
+
+                List<Task> tasks = new ArrayList<>(candidates.size());
+                for (RenewalCandidate candidate : candidates) {
+                    tasks.add(buildRenewalTask(candidate, assignee, today));
+                }
+                // Sequence ids + hibernate.jdbc.batch_size turn this into batched INSERTs at commit
+                taskRepository.saveAll(tasks);
+                taskCounters.created(tasks);
+                // Collected into the assignee's next digest instead of one email per task
+                notificationService.notifyAssignees(tasks, Notification.NotificationType.TASK_ASSIGNED,
+                        task -> "Новая задача: " + task.getTitle());
+
+                RenewalCheckpoint checkpoint = new RenewalCheckpoint();
+                checkpoint.setRunDate(today);
+                checkpoint.setRangeStart(fromId);
+                checkpoint.setRangeEnd(toId);
+                checkpoint.setTasksCreated(tasks.size());
+                checkpoint.setCompletedAt(LocalDateTime.now());
+                checkpointRepository.save(checkpoint);
+
+                return new PartitionOutcome(candidates.size(), tasks.size(), false);
+            });
+            return outcome != null ? outcome : new PartitionOutcome(0, 0, true);
+        } catch (RuntimeException ex) {
+            logger.error("Renewal partition [{}, {}) failed, it will be retried on the next run", fromId, toId, ex);
+            return new PartitionOutcome(0, 0, true);
         }
     }
 
-    private void createRenewalTaskIfNeeded(Store store, Task.LicenseType licenseType, User defaultAssignee) {
-        // Check if an active renewal task already exists
-        List<Task.TaskStatus> activeStatuses = Arrays.asList(
-                Task.TaskStatus.ASSIGNED,
-                Task.TaskStatus.IN_PROGRESS,
-                Task.TaskStatus.SUSPENDED);
-
-        boolean taskExists = taskRepository.existsByStoreIdAndLicenseTypeAndActionTypeAndStatusIn(
-                store.getId(),
-                licenseType,
-                Task.ActionType.RENEWAL,
-                activeStatuses);
-
-        if (taskExists) {
-            System.out.println("Renewal task already exists for store: " + store.getName() +
-                    ", license: " + licenseType);
-            return;
-        }
+    private Task buildRenewalTask(RenewalCandidate candidate, User assignee, LocalDate today) {
+        Task.LicenseType licenseType = Task.LicenseType.valueOf(candidate.getLicenseType());
 
-        // Create new renewal task
         Task task = new Task();
         String licenseTypeRu = licenseType == Task.LicenseType.ALCOHOL ? "алкогольной" : "табачной";
-        task.setTitle("Продление " + licenseTypeRu + " лицензии - " + store.getName());
+        task.setTitle("Продление " + licenseTypeRu + " лицензии - " + candidate.getStoreName());
         task.setDescription("Автоматически созданная задача на продление лицензии.");
         task.setLicenseType(licenseType);
         task.setActionType(Task.ActionType.RENEWAL);
         task.setStatus(Task.TaskStatus.ASSIGNED);
-        task.setStore(store);
-        task.setAssignee(defaultAssignee);
-        task.setCreatedBy(defaultAssignee);
+        task.setStore(storeRepository.getReferenceById(candidate.getStoreId()));
+        task.setAssignee(assignee);
+        task.setCreatedBy(assignee);
 
         // Set deadline to license expiry date (or today if already expired)
-        LocalDate expiryDate = licenseType == Task.LicenseType.ALCOHOL
-                ? store.getAlcoholLicenseExpiry()
-                : store.getTobaccoLicenseExpiry();
-        LocalDate deadline = expiryDate.isBefore(LocalDate.now()) ? LocalDate.now() : expiryDate;
-        task.setDeadlineDate(deadline);
-
-        taskRepository.save(task);
-        System.out.println("Created renewal task for store: " + store.getName() +
-                ", license: " + licenseType);
+        LocalDate expiryDate = candidate.getExpiry();
+        task.setDeadlineDate(expiryDate.isBefore(today) ? today : expiryDate);
+        return task;
+    }
+
+    private record PartitionOutcome(int candidates, int created, boolean failed) {
     }
 }
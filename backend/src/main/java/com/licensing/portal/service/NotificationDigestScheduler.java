@@ -0,0 +1,190 @@
+package com.licensing.portal.service;
+
+import com.licensing.portal.model.Notification;
+import com.licensing.portal.model.Notification.NotificationType;
+import com.licensing.portal.model.User;
+import com.licensing.portal.repository.NotificationRepository;
+import com.licensing.portal.repository.TaskRepository;
+import com.licensing.portal.repository.TaskRepository.DeadlineCandidate;
+import com.licensing.portal.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Turns accumulated notifications into one email per user per digest window, so
+ * the number of emails follows the number of users with news, not the number of
+ * tasks. Also raises the daily deadline warnings that feed the digest.
+ */
+@Service
+public class NotificationDigestScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDigestScheduler.class);
+
+    private static final String DIGEST_LOCK = "notification-digest";
+    private static final String DEADLINE_LOCK = "deadline-warnings";
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    private static final Map<NotificationType, String> TYPE_LABELS = new EnumMap<>(Map.of(
+            NotificationType.TASK_ASSIGNED, "Новые задачи",
+            NotificationType.DEADLINE_WARNING, "Приближающиеся сроки",
+            NotificationType.STATUS_CHANGED, "Изменения статуса",
+            NotificationType.DOCUMENT_UPLOADED, "Загруженные документы",
+            NotificationType.PAYMENT_COMPLETED, "Проведённые платежи",
+            NotificationType.GENERAL, "Прочее"));
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private SchedulerLockService schedulerLockService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${notifications.digest.window:PT1H}")
+    private Duration digestWindow;
+
+    // Individual notifications listed in a digest; the rest are only counted
+    @Value("${notifications.digest.max-items:20}")
+    private int maxItems;
+
+    @Value("${notifications.deadline-warning-days:3}")
+    private int deadlineWarningDays;
+
+    public NotificationDigestScheduler(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.digest.window:PT1H}",
+            initialDelayString = "${notifications.digest.window:PT1H}")
+    public int sendDigests() {
+        Optional<SchedulerLockService.Lease> lease = schedulerLockService.tryAcquire(DIGEST_LOCK, digestWindow);
+        if (lease.isEmpty()) {
+            return 0;
+        }
+        try (SchedulerLockService.Lease held = lease.get()) {
+            int sent = 0;
+            for (Long userId : notificationRepository.findUserIdsWithUndigested()) {
+                try {
+                    Boolean queued = transactionTemplate.execute(status -> digestForUser(userId));
+                    if (Boolean.TRUE.equals(queued)) {
+                        sent++;
+                    }
+                } catch (RuntimeException ex) {
+                    logger.error("Notification digest for user {} failed, it will be retried", userId, ex);
+                }
+            }
+            logger.info("Queued {} notification digests", sent);
+            return sent;
+        }
+    }
+
+    // Daily, before the working day starts; the NOT EXISTS check keeps reruns from
+    // warning twice about the same task on the same day
+    @Scheduled(cron = "${notifications.deadline-warning-cron:0 0 8 * * *}")
+    public int createDeadlineWarnings() {
+        Optional<SchedulerLockService.Lease> lease = schedulerLockService.tryAcquire(DEADLINE_LOCK,
+                Duration.ofMinutes(10));
+        if (lease.isEmpty()) {
+            return 0;
+        }
+        try (SchedulerLockService.Lease held = lease.get()) {
+            Integer created = transactionTemplate.execute(status -> {
+                LocalDate today = LocalDate.now();
+                List<DeadlineCandidate> candidates = taskRepository.findDeadlineWarningCandidates(
+                        today, today.plusDays(deadlineWarningDays), today.atStartOfDay());
+                List<Notification> notifications = new ArrayList<>(candidates.size());
+                for (DeadlineCandidate candidate : candidates) {
+                    Notification notification = new Notification();
+                    notification.setUser(userRepository.getReferenceById(candidate.getAssigneeId()));
+                    notification.setTask(taskRepository.getReferenceById(candidate.getTaskId()));
+                    notification.setType(NotificationType.DEADLINE_WARNING);
+                    notification.setMessage("Срок по задаче «" + candidate.getTitle() + "» истекает "
+                            + candidate.getDeadlineDate().format(DATE_FORMAT));
+                    notification.setIsRead(false);
+                    notifications.add(notification);
+                }
+                notificationService.notify(notifications);
+                return notifications.size();
+            });
+            logger.info("Created {} deadline warnings", created);
+            return created != null ? created : 0;
+        }
+    }
+
+    // Queues the user's digest email and marks what it covered, in one transaction.
+    // Notifications that arrive meanwhile have higher ids and wait for the next window.
+    private boolean digestForUser(Long userId) {
+        Long maxId = notificationRepository.findMaxUndigestedId(userId);
+        if (maxId == null) {
+            return false;
+        }
+        User user = userRepository.findById(userId).orElse(null);
+        boolean queued = false;
+        if (user != null && StringUtils.hasText(user.getEmail()) && !Boolean.FALSE.equals(user.getIsActive())) {
+            Map<NotificationType, Long> counts = new EnumMap<>(NotificationType.class);
+            for (Object[] row : notificationRepository.countUndigestedByType(userId, maxId)) {
+                counts.put((NotificationType) row[0], (Long) row[1]);
+            }
+            List<Notification> latest = notificationRepository.findUndigested(userId, maxId,
+                    PageRequest.of(0, maxItems));
+            long total = counts.values().stream().mapToLong(Long::longValue).sum();
+
+            emailService.queueEmail(user.getEmail(), "Портал лицензий: новых уведомлений — " + total,
+                    renderDigest(user, counts, latest, total));
+            queued = true;
+        }
+        notificationRepository.markDigested(userId, maxId, LocalDateTime.now());
+        return queued;
+    }
+
+    private String renderDigest(User user, Map<NotificationType, Long> counts, List<Notification> latest,
+            long total) {
+        StringBuilder text = new StringBuilder();
+        String name = StringUtils.hasText(user.getFullName()) ? user.getFullName() : user.getUsername();
+        text.append("Здравствуйте, ").append(name).append("!\n\n");
+        text.append("Сводка уведомлений на портале:\n");
+        counts.forEach((type, count) -> text.append("  • ").append(TYPE_LABELS.get(type))
+                .append(": ").append(count).append('\n'));
+
+        text.append("\nПоследние уведомления:\n");
+        for (Notification notification : latest) {
+            text.append("  • ").append(notification.getMessage()).append('\n');
+        }
+        if (total > latest.size()) {
+            text.append("  … и ещё ").append(total - latest.size()).append('\n');
+        }
+        text.append("\nВсе уведомления доступны на портале.\n");
+        return text.toString();
+    }
+}
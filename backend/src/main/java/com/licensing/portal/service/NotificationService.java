@@ -0,0 +1,125 @@
+package com.licensing.portal.service;
+
+import com.licensing.portal.dto.NotificationResponse;
+import com.licensing.portal.model.Notification;
+import com.licensing.portal.model.Notification.NotificationType;
+import com.licensing.portal.model.Task;
+import com.licensing.portal.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Records in-app notifications and keeps the unread counters in step. Nothing is
+ * emailed here: notifications pile up per user and NotificationDigestScheduler
+ * sends each user one digest per window.
+ */
+@Service
+public class NotificationService {
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UnreadNotificationCounter unreadCounter;
+
+    @Autowired
+    private EventStreamService eventStreamService;
+
+    // One notification per task for its assignee, saved as one batch in the caller's transaction
+    public void notifyAssignees(Collection<Task> tasks, NotificationType type, Function<Task, String> message) {
+        List<Notification> notifications = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            if (task.getAssignee() != null) {
+                notifications.add(newNotification(task, type, message.apply(task)));
+            }
+        }
+        notify(notifications);
+    }
+
+    public void notifyStatusChanged(Task task) {
+        if (task.getAssignee() == null) {
+            return;
+        }
+        String message = "Статус задачи «" + task.getTitle() + "» изменён на " + task.getStatus()
+                + (task.getStatusReason() != null ? ": " + task.getStatusReason() : "");
+        notify(List.of(newNotification(task, NotificationType.STATUS_CHANGED, message)));
+    }
+
+    // Saves unread notifications as one batch; counters and pushed badges follow after commit
+    public void notify(List<Notification> notifications) {
+        notificationRepository.saveAll(notifications);
+
+        Map<Long, Long> perUser = new LinkedHashMap<>();
+        for (Notification notification : notifications) {
+            perUser.merge(notification.getUser().getId(), 1L, Long::sum);
+        }
+        changeUnread(perUser);
+    }
+
+    public List<NotificationResponse> getNotifications(Long userId, boolean unreadOnly, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return notificationRepository.findResponsesByUserId(userId, unreadOnly, PageRequest.of(0, pageSize));
+    }
+
+    // Served from memory, never from the database
+    public long getUnreadCount(Long userId) {
+        return unreadCounter.get(userId);
+    }
+
+    @Transactional
+    public void markRead(Long notificationId, Long userId) {
+        if (notificationRepository.markRead(notificationId, userId) > 0) {
+            changeUnread(Map.of(userId, -1L));
+        }
+    }
+
+    // One UPDATE for all of the user's unread notifications
+    @Transactional
+    public int markAllRead(Long userId) {
+        int updated = notificationRepository.markAllRead(userId);
+        changeUnread(Map.of(userId, (long) -updated));
+        return updated;
+    }
+
+    // Notifications of a task that is about to be deleted
+    public void deleteForTask(Long taskId) {
+        Map<Long, Long> perUser = new LinkedHashMap<>();
+        for (Object[] row : notificationRepository.countUnreadByTaskOrParentTaskId(taskId)) {
+            perUser.put((Long) row[0], -(Long) row[1]);
+        }
+        notificationRepository.deleteByTaskOrParentTaskId(taskId);
+        changeUnread(perUser);
+    }
+
+    // Counter updates are registered before the push, so after commit the pushed
+    // badge already reflects them
+    private void changeUnread(Map<Long, Long> deltaPerUser) {
+        if (deltaPerUser.isEmpty()) {
+            return;
+        }
+        deltaPerUser.forEach(unreadCounter::addAfterCommit);
+        eventStreamService.publishUnreadCounts(deltaPerUser.keySet());
+    }
+
+    private Notification newNotification(Task task, NotificationType type, String message) {
+        Notification notification = new Notification();
+        notification.setUser(task.getAssignee());
+        notification.setTask(task);
+        notification.setType(type);
+        notification.setMessage(message);
+        notification.setIsRead(false);
+        return notification;
+    }
+}
@@ -6,6 +6,7 @@ import com.licensing.portal.model.Payment;
 import com.licensing.portal.model.Task;
 import com.licensing.portal.repository.PaymentRepository;
 import com.licensing.portal.repository.TaskRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,6 +16,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("portal.service")
 public class PaymentService {
 
     private final PaymentRepository paymentRepository;
@@ -0,0 +1,120 @@
+package com.licensing.portal.service;
+
+import com.licensing.portal.repository.SchedulerLockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Database lease lock that lets exactly one backend node run a scheduled job.
+ * Every acquisition gets its own owner token, so two runs on the same node (cron and
+ * a /debug trigger) exclude each other as well. A held lease is renewed on a timer;
+ * a lease that is not renewed (node died) expires and another node takes over.
+ */
+@Service
+public class SchedulerLockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchedulerLockService.class);
+
+    private final SchedulerLockRepository lockRepository;
+
+    private final TaskScheduler taskScheduler;
+
+    // Unique per running instance, also across restarts of the same host
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName() + "/"
+            + UUID.randomUUID().toString().substring(0, 8);
+
+    public SchedulerLockService(SchedulerLockRepository lockRepository, TaskScheduler taskScheduler) {
+        this.lockRepository = lockRepository;
+        this.taskScheduler = taskScheduler;
+    }
+
+    // Empty when another run, on this or another node, holds the lease. Close the
+    // returned lease when the job is done.
+    public Optional<Lease> tryAcquire(String name, Duration lease) {
+        String owner = nodeId + "/" + UUID.randomUUID().toString().substring(0, 8);
+        boolean acquired = lockRepository.tryAcquire(name, owner, lease.toSeconds()) == 1;
+        logger.debug("Lock {} {} by {}", name, acquired ? "acquired" : "busy, not acquired", owner);
+        if (!acquired) {
+            return Optional.empty();
+        }
+        Lease held = new Lease(name, owner, lease);
+        // Three renewal attempts per lease period, so one slow or failed attempt does not lose it
+        Duration period = lease.dividedBy(3);
+        held.renewal = taskScheduler.scheduleAtFixedRate(held::renew, Instant.now().plus(period), period);
+        return Optional.of(held);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public final class Lease implements AutoCloseable {
+
+        private final String name;
+        private final String owner;
+        private final Duration duration;
+        private volatile boolean held = true;
+        private volatile ScheduledFuture<?> renewal;
+
+        private Lease(String name, String owner, Duration duration) {
+            this.name = name;
+            this.owner = owner;
+            this.duration = duration;
+        }
+
+        // False once a renewal found the lease taken over; the job should stop
+        public boolean isHeld() {
+            return held;
+        }
+
+        // Call inside a transaction before writing under the lease. Locks the lease row
+        // until that transaction ends if this run still holds an unexpired lease, so a
+        // takeover by another node waits until the work is committed or rolled back.
+        public boolean holdInTransaction() {
+            if (held && lockRepository.lockIfHeld(name, owner).isEmpty()) {
+                lost();
+            }
+            return held;
+        }
+
+        private void renew() {
+            if (!held) {
+                return;
+            }
+            try {
+                if (lockRepository.renew(name, owner, duration.toSeconds()) == 0) {
+                    lost();
+                }
+            } catch (RuntimeException ex) {
+                // Retried on the next tick; if the lease expires meanwhile, holdInTransaction says so
+                logger.warn("Could not renew lock {}: {}", name, ex.toString());
+            }
+        }
+
+        private void lost() {
+            if (held) {
+                held = false;
+                renewal.cancel(false);
+                logger.warn("Lock {} held by {} was lost to another owner", name, owner);
+            }
+        }
+
+        @Override
+        public void close() {
+            renewal.cancel(false);
+            if (held) {
+                held = false;
+                lockRepository.release(name, owner);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.licensing.portal.service;
+
+import com.licensing.portal.dto.SearchResponse;
+import com.licensing.portal.dto.SearchResult;
+import com.licensing.portal.model.User;
+import com.licensing.portal.repository.SearchRepository;
+import com.licensing.portal.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class SearchService {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Trigram indexes cannot narrow down shorter substrings
+    private static final int MIN_SUBSTRING_LENGTH = 3;
+
+    private static final Set<String> ALL_TYPES = Set.of("TASK", "STORE", "DOCUMENT");
+
+    @Autowired
+    private SearchRepository searchRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    public SearchResponse search(String username, String query, Set<String> types, Integer page, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNumber = page == null ? 0 : Math.max(0, page);
+        String text = query == null ? "" : query.trim();
+        if (!StringUtils.hasText(text)) {
+            return new SearchResponse(text, List.of(), pageNumber, pageSize, false);
+        }
+
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        // Non-admins only find their own tasks and those tasks' documents
+        Long assigneeId = user.getRoles() == null || !user.getRoles().contains("ADMIN") ? user.getId() : null;
+
+        Set<String> wanted = types == null || types.isEmpty()
+                ? ALL_TYPES
+                : types.stream().map(type -> type.toUpperCase(Locale.ROOT)).collect(Collectors.toSet());
+
+        String pattern = text.length() >= MIN_SUBSTRING_LENGTH ? "%" + escapeLike(text) + "%" : null;
+
+        // Fetch one extra row to know whether another page exists without a COUNT
+        List<SearchResult> items = searchRepository.search(text, pattern, assigneeId,
+                        wanted.contains("TASK"), wanted.contains("STORE"), wanted.contains("DOCUMENT"),
+                        pageSize + 1, (long) pageNumber * pageSize)
+                .stream()
+                .map(hit -> new SearchResult(hit.getType(), hit.getId(), hit.getTaskId(), hit.getTitle(),
+                        hit.getSnippet(), hit.getRank() == null ? 0 : hit.getRank()))
+                .collect(Collectors.toList());
+
+        boolean hasMore = items.size() > pageSize;
+        if (hasMore) {
+            items = items.subList(0, pageSize);
+        }
+        return new SearchResponse(text, items, pageNumber, pageSize, hasMore);
+    }
+
+    private String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,204 @@
+package com.licensing.portal.service;
+
+import com.licensing.portal.model.Store;
+import com.licensing.portal.model.Task;
+import com.licensing.portal.repository.StoreRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of active stores by license expiry date, per license type.
+ * Loaded at startup, kept current by {@link StoreExpiryListener} for writes on this node
+ * and reloaded on a slow interval so writes made on other nodes show up too. Callers
+ * that cannot wait for that interval use {@link #rebuildIfOlderThan(Duration)}.
+ */
+@Service
+public class StoreExpiryIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(StoreExpiryIndex.class);
+
+    // Provider instead of the repository itself: the entity listener depends on this
+    // bean, so a direct dependency on JPA would be circular
+    private final ObjectProvider<StoreRepository> storeRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Task.LicenseType, NavigableMap<LocalDate, Set<Long>>> byExpiry = new EnumMap<>(Task.LicenseType.class);
+    private final Map<Task.LicenseType, Map<Long, LocalDate>> byStore = new EnumMap<>(Task.LicenseType.class);
+    private volatile boolean loaded;
+
+    // When the last successful rebuild read the stores; writes on other nodes after it are not seen
+    private volatile Instant loadedAt;
+
+    // Listener updates that arrive while a rebuild reads the stores, reapplied after it
+    // swaps in its snapshot so they are not overwritten. Null when no rebuild runs.
+    private List<Runnable> updatesDuringRebuild;
+
+    // One rebuild at a time (startup and the scheduled reload can overlap)
+    private final Object rebuildMonitor = new Object();
+
+    public StoreExpiryIndex(ObjectProvider<StoreRepository> storeRepository) {
+        this.storeRepository = storeRepository;
+        for (Task.LicenseType type : Task.LicenseType.values()) {
+            byExpiry.put(type, new TreeMap<>());
+            byStore.put(type, new HashMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${store-expiry-index.refresh-interval:PT1H}",
+            initialDelayString = "${store-expiry-index.refresh-interval:PT1H}")
+    public void rebuild() {
+        synchronized (rebuildMonitor) {
+            lock.writeLock().lock();
+            try {
+                updatesDuringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Instant readAt = Instant.now();
+            List<StoreRepository.StoreExpiry> rows;
+            try {
+                rows = storeRepository.getObject().findActiveExpiries();
+            } catch (RuntimeException ex) {
+                lock.writeLock().lock();
+                try {
+                    updatesDuringRebuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw ex;
+            }
+
+            lock.writeLock().lock();
+            try {
+                for (Task.LicenseType type : Task.LicenseType.values()) {
+                    byExpiry.get(type).clear();
+                    byStore.get(type).clear();
+                }
+                for (StoreRepository.StoreExpiry row : rows) {
+                    put(Task.LicenseType.ALCOHOL, row.getId(), row.getAlcoholLicenseExpiry());
+                    put(Task.LicenseType.TOBACCO, row.getId(), row.getTobaccoLicenseExpiry());
+                }
+                // The snapshot may predate these; they are idempotent, so reapplying is safe
+                updatesDuringRebuild.forEach(Runnable::run);
+                updatesDuringRebuild = null;
+                loaded = true;
+                loadedAt = readAt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.debug("Store expiry index rebuilt with {} active stores", rows.size());
+        }
+    }
+
+    // For callers that must not miss writes made on other nodes: rebuilds unless the last
+    // load is younger than maxAge
+    public void rebuildIfOlderThan(Duration maxAge) {
+        Instant last = loadedAt;
+        if (last == null || !last.isAfter(Instant.now().minus(maxAge))) {
+            rebuild();
+        }
+    }
+
+    // Applies the current state of a store that was just saved
+    public void update(Store store) {
+        Long storeId = store.getId();
+        boolean active = Boolean.TRUE.equals(store.getIsActive());
+        LocalDate alcoholExpiry = store.getAlcoholLicenseExpiry();
+        LocalDate tobaccoExpiry = store.getTobaccoLicenseExpiry();
+        apply(() -> {
+            removeStore(storeId);
+            if (active) {
+                put(Task.LicenseType.ALCOHOL, storeId, alcoholExpiry);
+                put(Task.LicenseType.TOBACCO, storeId, tobaccoExpiry);
+            }
+        });
+    }
+
+    public void remove(Long storeId) {
+        apply(() -> removeStore(storeId));
+    }
+
+    // Ids of active stores whose license of the given type expires on or before upTo,
+    // earliest expiry first
+    public List<Long> findExpiring(Task.LicenseType type, LocalDate upTo) {
+        lock.readLock().lock();
+        try {
+            List<Long> ids = new ArrayList<>();
+            for (Set<Long> storeIds : byExpiry.get(type).headMap(upTo, true).values()) {
+                ids.addAll(storeIds);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids of active stores with any license expiring on or before upTo, sorted by id
+    public NavigableSet<Long> findExpiringStoreIds(LocalDate upTo) {
+        NavigableSet<Long> ids = new TreeSet<>();
+        for (Task.LicenseType type : Task.LicenseType.values()) {
+            ids.addAll(findExpiring(type, upTo));
+        }
+        return ids;
+    }
+
+    // False until a rebuild has succeeded, e.g. when the database was down at startup
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (updatesDuringRebuild != null) {
+                updatesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(Task.LicenseType type, Long storeId, LocalDate expiry) {
+        if (storeId == null || expiry == null) {
+            return;
+        }
+        byExpiry.get(type).computeIfAbsent(expiry, d -> new TreeSet<>()).add(storeId);
+        byStore.get(type).put(storeId, expiry);
+    }
+
+    private void removeStore(Long storeId) {
+        for (Task.LicenseType type : Task.LicenseType.values()) {
+            LocalDate expiry = byStore.get(type).remove(storeId);
+            if (expiry != null) {
+                Set<Long> ids = byExpiry.get(type).get(expiry);
+                ids.remove(storeId);
+                if (ids.isEmpty()) {
+                    byExpiry.get(type).remove(expiry);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.licensing.portal.service;
+
+import com.licensing.portal.model.Store;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Keeps StoreExpiryIndex in step with Store writes, applied only once the
+// surrounding transaction has committed
+@Component
+public class StoreExpiryListener {
+
+    @Autowired
+    private StoreExpiryIndex storeExpiryIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Store store) {
+        afterCommit(() -> storeExpiryIndex.update(store));
+    }
+
+    @PostRemove
+    public void onRemove(Store store) {
+        Long storeId = store.getId();
+        afterCommit(() -> storeExpiryIndex.remove(storeId));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
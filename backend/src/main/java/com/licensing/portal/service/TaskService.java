@@ -1,24 +1,42 @@
 package com.licensing.portal.service;
 
+import com.licensing.portal.dto.TaskFilter;
+import com.licensing.portal.dto.TaskPageResponse;
 import com.licensing.portal.dto.TaskRequest;
 import com.licensing.portal.dto.TaskResponse;
 import com.licensing.portal.model.Store;
 import com.licensing.portal.model.Task;
 import com.licensing.portal.model.User;
+import com.licensing.portal.repository.DocumentRepository;
+import com.licensing.portal.repository.PaymentRepository;
 import com.licensing.portal.repository.StoreRepository;
 import com.licensing.portal.repository.TaskRepository;
 import com.licensing.portal.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
+@Timed("portal.service")
 public class TaskService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final String CURSOR_PREFIX = "t:";
+    // Keeps the IN (...) list of the count queries well below the JDBC bind limit
+    private static final int COUNT_BATCH_SIZE = 1000;
+
     @Autowired
     private TaskRepository taskRepository;
 
@@ -28,6 +46,21 @@ public class TaskService {
     @Autowired
     private StoreRepository storeRepository;
 
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private EventStreamService eventStreamService;
+
+    @Autowired
+    private TaskStatusCounterService taskCounters;
+
     @Transactional
     public TaskResponse createTask(TaskRequest request, String username) {
         User creator = userRepository.findByUsername(username)
@@ -65,6 +98,8 @@ public class TaskService {
         }
 
         Task savedTask = taskRepository.save(task);
+        taskCounters.created(savedTask);
+        eventStreamService.publishTaskChanged(savedTask);
         return convertToResponse(savedTask);
     }
 
@@ -72,16 +107,44 @@ public class TaskService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        List<Task> tasks;
         if (user.getRoles() != null && user.getRoles().contains("ADMIN")) {
-            tasks = taskRepository.findAll();
-        } else {
-            tasks = taskRepository.findByAssigneeId(user.getId());
+            return withCounts(taskRepository.findAllResponses());
+        }
+        return withCounts(taskRepository.findResponsesByAssigneeId(user.getId()));
+    }
+
+    public TaskPageResponse getTaskPage(String username, TaskFilter filter, String cursor, Integer size) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        // Non-admins only ever see their own tasks, whatever assignee filter they send
+        Long assigneeId = filter.getAssigneeId();
+        if (user.getRoles() == null || !user.getRoles().contains("ADMIN")) {
+            assigneeId = user.getId();
+        }
+
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        // Fetch one extra row to know whether another page exists without a COUNT
+        List<TaskResponse> items = taskRepository.findPage(
+                decodeCursor(cursor),
+                filter.getStatus(),
+                filter.getLicenseType(),
+                filter.getActionType(),
+                filter.getStoreId(),
+                assigneeId,
+                filter.getDeadlineFrom(),
+                filter.getDeadlineTo(),
+                PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = items.size() > pageSize;
+        if (hasMore) {
+            items = items.subList(0, pageSize);
         }
 
-        return tasks.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        String nextCursor = hasMore ? encodeCursor(items.get(items.size() - 1).getId()) : null;
+
+        return new TaskPageResponse(withCounts(items), nextCursor, hasMore, pageSize);
     }
 
     public TaskResponse getTaskById(Long id) {
@@ -94,6 +157,7 @@ public class TaskService {
     public TaskResponse updateTask(Long id, TaskRequest request) {
         Task task = taskRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Task not found"));
+        TaskStatusCounterService.Cell before = TaskStatusCounterService.Cell.of(task);
 
         task.setTitle(request.getTitle());
         task.setDescription(request.getDescription());
@@ -143,23 +207,34 @@ public class TaskService {
         }
 
         Task updatedTask = taskRepository.save(task);
+        taskCounters.changed(before, updatedTask);
+        eventStreamService.publishTaskChanged(updatedTask);
         return convertToResponse(updatedTask);
     }
 
     @Transactional
     public void deleteTask(Long id) {
-        taskRepository.deleteById(id);
+        // Notifications reference the task (and its subtasks) by foreign key
+        notificationService.deleteForTask(id);
+        taskRepository.findById(id).ifPresent(task -> {
+            taskCounters.removed(task);
+            taskRepository.delete(task);
+        });
     }
 
     @Transactional
     public TaskResponse updateTaskStatus(Long id, Task.TaskStatus status, String reason) {
         Task task = taskRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Task not found"));
+        TaskStatusCounterService.Cell before = TaskStatusCounterService.Cell.of(task);
         task.setStatus(status);
         if (reason != null) {
             task.setStatusReason(reason);
         }
         Task updatedTask = taskRepository.save(task);
+        taskCounters.changed(before, updatedTask);
+        notificationService.notifyStatusChanged(updatedTask);
+        eventStreamService.publishTaskChanged(updatedTask);
         return convertToResponse(updatedTask);
     }
 
@@ -173,18 +248,15 @@ public class TaskService {
     public List<TaskResponse> getUpcomingDeadlines(int days) {
         LocalDate today = LocalDate.now();
         LocalDate futureDate = today.plusDays(days);
-        return taskRepository.findTasksWithDeadlineBetween(today, futureDate).stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return withCounts(taskRepository.findResponsesWithDeadlineBetween(today, futureDate));
     }
 
     public List<TaskResponse> getSubtasks(Long parentTaskId) {
-        Task parentTask = taskRepository.findById(parentTaskId)
-                .orElseThrow(() -> new RuntimeException("Parent task not found"));
+        if (!taskRepository.existsById(parentTaskId)) {
+            throw new RuntimeException("Parent task not found");
+        }
 
-        return taskRepository.findByParentTaskId(parentTaskId).stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return withCounts(taskRepository.findResponsesByParentTaskId(parentTaskId));
     }
 
     @Transactional
@@ -223,6 +295,8 @@ public class TaskService {
         }
 
         Task savedSubtask = taskRepository.save(subtask);
+        taskCounters.created(savedSubtask);
+        eventStreamService.publishTaskChanged(savedSubtask);
         return convertToResponse(savedSubtask);
     }
 
@@ -235,9 +309,31 @@ public class TaskService {
         task.setPlannedEndDate(LocalDate.parse(plannedEndDate));
 
         Task updatedTask = taskRepository.save(task);
+        eventStreamService.publishTaskChanged(updatedTask);
         return convertToResponse(updatedTask);
     }
 
+    private String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new IllegalArgumentException(decoded);
+            }
+            return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException ex) {
+            // A client error, not a server one: 400 like any other malformed parameter
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor, ex);
+        }
+    }
+
     private TaskResponse convertToResponse(Task task) {
         TaskResponse response = new TaskResponse();
         response.setId(task.getId());
@@ -273,12 +369,35 @@ public class TaskService {
             response.setCreatedByName(task.getCreatedBy().getFullName());
         }
 
-        // Set document and payment counts to 0 to avoid lazy loading issues
-        // TODO: Add dedicated repository methods to count documents and payments if
-        // needed
-        response.setDocumentCount(0);
-        response.setPaymentCount(0);
+        // Counts come from grouped queries rather than the lazy collections
+        withCounts(List.of(response));
 
         return response;
     }
+
+    // Fills documentCount/paymentCount with one grouped COUNT per table
+    // (per COUNT_BATCH_SIZE rows), never touching Task.documents/payments
+    private List<TaskResponse> withCounts(List<TaskResponse> responses) {
+        for (int from = 0; from < responses.size(); from += COUNT_BATCH_SIZE) {
+            List<TaskResponse> batch = responses.subList(from, Math.min(from + COUNT_BATCH_SIZE, responses.size()));
+            List<Long> taskIds = batch.stream().map(TaskResponse::getId).toList();
+
+            Map<Long, Long> documentCounts = toCountMap(documentRepository.countByTaskIds(taskIds));
+            Map<Long, Long> paymentCounts = toCountMap(paymentRepository.countByTaskIds(taskIds));
+
+            for (TaskResponse response : batch) {
+                response.setDocumentCount(documentCounts.getOrDefault(response.getId(), 0L).intValue());
+                response.setPaymentCount(paymentCounts.getOrDefault(response.getId(), 0L).intValue());
+            }
+        }
+        return responses;
+    }
+
+    private Map<Long, Long> toCountMap(List<Object[]> rows) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
 }
@@ -0,0 +1,81 @@
+package com.licensing.portal.service;
+
+import com.licensing.portal.repository.TaskStatusCounterRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Nightly repair of task_status_counters against the tasks table. The counter
+ * table is locked for the duration, so task writes that commit meanwhile wait
+ * for it instead of being overwritten by the recount. Also fills the table on
+ * the first start after ddl-auto created it empty.
+ */
+@Service
+public class TaskStatusCounterReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskStatusCounterReconciler.class);
+
+    private static final String LOCK_NAME = "task-counter-reconcile";
+
+    @Autowired
+    private TaskStatusCounterRepository counterRepository;
+
+    @Autowired
+    private SchedulerLockService schedulerLockService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public TaskStatusCounterReconciler(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Without V17's initial fill the counters start empty; count the existing tasks once
+    @EventListener(ApplicationReadyEvent.class)
+    public void fillIfEmpty() {
+        if (counterRepository.countCells() == 0) {
+            Map<String, Long> result = reconcile();
+            logger.info("Task counters were empty, filled from the tasks table: {}", result);
+        }
+    }
+
+    @Scheduled(cron = "${task-counters.reconcile-cron:0 30 2 * * *}")
+    public Map<String, Long> reconcile() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        Optional<SchedulerLockService.Lease> lease = schedulerLockService.tryAcquire(LOCK_NAME, Duration.ofMinutes(10));
+        if (lease.isEmpty()) {
+            result.put("acquired", 0L);
+            return result;
+        }
+        try (SchedulerLockService.Lease held = lease.get()) {
+            result.put("acquired", 1L);
+            long startedAt = System.nanoTime();
+            transactionTemplate.executeWithoutResult(status -> {
+                counterRepository.lockForReconcile();
+                result.put("repaired", (long) counterRepository.repairCounts());
+                result.put("orphaned", (long) counterRepository.deleteOrphanedCells());
+                result.put("emptied", (long) counterRepository.deleteZeroCells());
+                result.put("cells", counterRepository.countCells());
+            });
+            result.put("durationMs", (System.nanoTime() - startedAt) / 1_000_000);
+            if (result.get("repaired") > 0 || result.get("orphaned") > 0) {
+                logger.warn("Task counters drifted: {} cells repaired, {} orphaned cells removed",
+                        result.get("repaired"), result.get("orphaned"));
+            } else {
+                logger.info("Task counters reconciled, no drift ({} cells)", result.get("cells"));
+            }
+            return result;
+        }
+    }
+}
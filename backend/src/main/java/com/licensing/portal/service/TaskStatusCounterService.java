@@ -0,0 +1,100 @@
+package com.licensing.portal.service;
+
+import com.licensing.portal.model.Task;
+import com.licensing.portal.repository.TaskStatusCounterRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps task_status_counters in step with task writes. Callers report which cell a
+ * task left and which one it entered; the deltas are summed per transaction and
+ * written just before commit, in a fixed cell order so that concurrent writers
+ * lock counter rows in the same order and cannot deadlock on them.
+ * TaskStatusCounterReconciler repairs whatever drifts past this (bulk updates,
+ * manual SQL).
+ */
+@Service
+public class TaskStatusCounterService {
+
+    private static final Object TRANSACTION_KEY = new Object();
+
+    @Autowired
+    private TaskStatusCounterRepository counterRepository;
+
+    public record Cell(long storeId, long assigneeId, String licenseType, String status) {
+
+        static final Comparator<Cell> ORDER = Comparator.comparingLong(Cell::storeId)
+                .thenComparingLong(Cell::assigneeId)
+                .thenComparing(Cell::licenseType)
+                .thenComparing(Cell::status);
+
+        // Same mapping as the V17 migration and the reconcile query
+        public static Cell of(Task task) {
+            return new Cell(
+                    task.getStore() != null ? task.getStore().getId() : 0L,
+                    task.getAssignee() != null ? task.getAssignee().getId() : 0L,
+                    task.getLicenseType().name(),
+                    task.getStatus() != null ? task.getStatus().name() : Task.TaskStatus.ASSIGNED.name());
+        }
+    }
+
+    public void created(Task task) {
+        adjust(Cell.of(task), 1);
+    }
+
+    public void created(List<Task> tasks) {
+        tasks.forEach(this::created);
+    }
+
+    // Subtasks are removed with their parent by cascade, so they are counted out too
+    public void removed(Task task) {
+        adjust(Cell.of(task), -1);
+        if (task.getSubtasks() != null) {
+            task.getSubtasks().forEach(this::removed);
+        }
+    }
+
+    public void changed(Cell before, Task task) {
+        Cell after = Cell.of(task);
+        if (!before.equals(after)) {
+            adjust(before, -1);
+            adjust(after, 1);
+        }
+    }
+
+    private void adjust(Cell cell, long delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Task counters can only be changed inside a transaction");
+        }
+        @SuppressWarnings("unchecked")
+        Map<Cell, Long> deltas = (Map<Cell, Long>) TransactionSynchronizationManager.getResource(TRANSACTION_KEY);
+        if (deltas == null) {
+            deltas = new TreeMap<>(Cell.ORDER);
+            TransactionSynchronizationManager.bindResource(TRANSACTION_KEY, deltas);
+            Map<Cell, Long> pending = deltas;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    pending.forEach((c, d) -> {
+                        if (d != 0) {
+                            counterRepository.increment(c.storeId(), c.assigneeId(), c.licenseType(), c.status(), d);
+                        }
+                    });
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_KEY);
+                }
+            });
+        }
+        deltas.merge(cell, delta, Long::sum);
+    }
+}
@@ -0,0 +1,75 @@
+package com.licensing.portal.service;
+
+import com.licensing.portal.repository.NotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Unread notification count per user, held in memory so badge lookups never hit
+ * the database. Loaded at startup, adjusted after commit by whoever creates or
+ * reads notifications on this node, and reloaded periodically so changes made on
+ * other nodes (or lost in a reload race) show up too.
+ */
+@Service
+public class UnreadNotificationCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnreadNotificationCounter.class);
+
+    private final NotificationRepository notificationRepository;
+
+    private volatile Map<Long, LongAdder> counters = new ConcurrentHashMap<>();
+
+    public UnreadNotificationCounter(NotificationRepository notificationRepository) {
+        this.notificationRepository = notificationRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${notifications.unread-counter.refresh-interval:PT5M}",
+            initialDelayString = "${notifications.unread-counter.refresh-interval:PT5M}")
+    public void rebuild() {
+        Map<Long, LongAdder> fresh = new ConcurrentHashMap<>();
+        for (Object[] row : notificationRepository.countUnreadGroupedByUser()) {
+            LongAdder adder = new LongAdder();
+            adder.add((Long) row[1]);
+            fresh.put((Long) row[0], adder);
+        }
+        counters = fresh;
+        logger.debug("Unread notification counters rebuilt for {} users", fresh.size());
+    }
+
+    public long get(Long userId) {
+        LongAdder adder = counters.get(userId);
+        return adder == null ? 0 : Math.max(0, adder.sum());
+    }
+
+    // Applies delta once the surrounding transaction commits (immediately without one)
+    public void addAfterCommit(Long userId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(userId, delta);
+                }
+            });
+        } else {
+            add(userId, delta);
+        }
+    }
+
+    private void add(Long userId, long delta) {
+        counters.computeIfAbsent(userId, id -> new LongAdder()).add(delta);
+    }
+}
@@ -1,29 +1,62 @@
 package com.licensing.portal.service.impl;
 
+import com.licensing.portal.config.DocumentUploadProperties;
 import com.licensing.portal.model.Document;
 import com.licensing.portal.model.Task;
 import com.licensing.portal.model.User;
+import com.licensing.portal.repository.DocumentBlobRepository;
 import com.licensing.portal.repository.DocumentRepository;
 import com.licensing.portal.repository.TaskRepository;
 import com.licensing.portal.repository.UserRepository;
+import com.licensing.portal.service.ContentAddressedStore;
+import com.licensing.portal.service.DocumentProcessingPipeline;
 import com.licensing.portal.service.DocumentService;
+import com.licensing.portal.service.DocumentStorage;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.util.StringUtils;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.UUID;
 
 @Service
+@Timed("portal.service")
 public class DocumentServiceImpl implements DocumentService {
 
-    private final Path fileStorageLocation;
+    private static final Logger logger = LoggerFactory.getLogger(DocumentServiceImpl.class);
+
+    // Bytes held in memory per upload, whatever the file size
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    // Uploads are written here before being handed to the storage backend; keep it
+    // on the same file system as the local storage root so the hand-off is a rename
+    private final Path tempLocation;
+
+    private final DistributionSummary uploadSize;
+
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
     private DocumentRepository documentRepository;
@@ -34,10 +67,30 @@ public class DocumentServiceImpl implements DocumentService {
     @Autowired
     private UserRepository userRepository;
 
-    public DocumentServiceImpl() {
-        this.fileStorageLocation = Paths.get("uploads").toAbsolutePath().normalize();
+    @Autowired
+    private DocumentUploadProperties uploadProperties;
+
+    @Autowired
+    private DocumentBlobRepository documentBlobRepository;
+
+    @Autowired
+    private ContentAddressedStore contentAddressedStore;
+
+    @Autowired
+    private DocumentStorage documentStorage;
+
+    @Autowired
+    private DocumentProcessingPipeline documentProcessingPipeline;
+
+    public DocumentServiceImpl(@Value("${documents.temp-dir:uploads/tmp}") String tempDir,
+            MeterRegistry meterRegistry, PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tempLocation = Paths.get(tempDir).toAbsolutePath().normalize();
+        this.uploadSize = DistributionSummary.builder("documents.upload.size")
+                .baseUnit("bytes")
+                .register(meterRegistry);
         try {
-            Files.createDirectories(this.fileStorageLocation);
+            Files.createDirectories(this.tempLocation);
         } catch (Exception ex) {
             throw new RuntimeException("Could not create the directory where the uploaded files will be stored.", ex);
         }
@@ -45,35 +98,88 @@ public class DocumentServiceImpl implements DocumentService {
 
     @Override
     public Document uploadDocument(Long taskId, MultipartFile file, String username) {
-        Task task = taskRepository.findById(taskId)
-                .orElseThrow(() -> new RuntimeException("Task not found with id " + taskId));
+        try (InputStream content = file.getInputStream()) {
+            return uploadDocument(taskId, content, file.getOriginalFilename(), file.getContentType(),
+                    file.getSize(), username);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not read uploaded file " + file.getOriginalFilename(), ex);
+        }
+    }
 
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found with username " + username));
+    // Not transactional: the body is streamed to a temp file first, and only then a
+    // short transaction looks up the task and user and records the document, so a
+    // slow client never holds a pooled connection
+    @Override
+    public Document uploadDocument(Long taskId, InputStream content, String fileName, String contentType,
+            long contentLength, String username) {
+        String originalFileName = StringUtils.cleanPath(fileName);
+        if (originalFileName.contains("..")) {
+            throw new RuntimeException("Sorry! Filename contains invalid path sequence " + originalFileName);
+        }
 
-        String originalFileName = StringUtils.cleanPath(file.getOriginalFilename());
-        String fileName = UUID.randomUUID().toString() + "_" + originalFileName;
+        // Reject before reading anything when the declared size is already too large
+        String extension = getFileExtension(originalFileName);
+        long maxBytes = uploadProperties.maxBytesFor(extension);
+        if (contentLength > maxBytes) {
+            throw new MaxUploadSizeExceededException(maxBytes);
+        }
 
+        Path tempFile = this.tempLocation.resolve(".upload-" + UUID.randomUUID() + ".tmp");
         try {
-            if (fileName.contains("..")) {
-                throw new RuntimeException("Sorry! Filename contains invalid path sequence " + fileName);
+            StoredContent stored = copyWithDigest(content, tempFile, maxBytes);
+            Document saved = transactionTemplate.execute(status ->
+                    saveDocument(taskId, username, tempFile, stored, originalFileName, contentType, extension));
+            uploadSize.record(stored.size());
+            return saved;
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not store file " + originalFileName + ". Please try again!", ex);
+        } finally {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException ex) {
+                logger.warn("Could not delete temporary upload file {}: {}", tempFile, ex.toString());
             }
+        }
+    }
 
-            Path targetLocation = this.fileStorageLocation.resolve(fileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+    private Document saveDocument(Long taskId, String username, Path tempFile, StoredContent stored,
+            String originalFileName, String contentType, String extension) {
+        Task task = taskRepository.findById(taskId)
+                .orElseThrow(() -> new RuntimeException("Task not found with id " + taskId));
 
-            Document document = new Document();
-            document.setTask(task);
-            document.setFileName(originalFileName);
-            document.setFilePath(targetLocation.toString());
-            document.setFileSize(file.getSize());
-            document.setDocumentType(getFileExtension(originalFileName));
-            document.setUploadedBy(user);
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found with username " + username));
 
-            return documentRepository.save(document);
+        // Identical content is stored once. Taking the reference first locks the
+        // blob row, so a concurrent delete of the last reference cannot remove
+        // the blob we are about to point at.
+        documentBlobRepository.addReference(stored.sha256(), stored.size());
+        String storageKey;
+        try {
+            storageKey = contentAddressedStore.store(tempFile, stored.sha256(), stored.size());
         } catch (IOException ex) {
-            throw new RuntimeException("Could not store file " + fileName + ". Please try again!", ex);
+            throw new RuntimeException("Could not store file " + originalFileName + ". Please try again!", ex);
         }
+
+        Document document = new Document();
+        document.setTask(task);
+        document.setFileName(originalFileName);
+        document.setFilePath(storageKey);
+        document.setFileSize(stored.size());
+        document.setSha256(stored.sha256());
+        document.setContentType(contentType);
+        document.setDocumentType(extension);
+        document.setUploadedBy(user);
+
+        Document saved = documentRepository.save(document);
+        // Scan, preview and text extraction happen off the request thread once the row is visible
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                documentProcessingPipeline.submit(saved.getId());
+            }
+        });
+        return saved;
     }
 
     @Override
@@ -82,19 +188,31 @@ public class DocumentServiceImpl implements DocumentService {
     }
 
     @Override
+    @Transactional
     public void deleteDocument(Long documentId) {
         Document document = documentRepository.findById(documentId)
                 .orElseThrow(() -> new RuntimeException("Document not found with id " + documentId));
 
+        documentRepository.delete(document);
+
         try {
-            Path filePath = Paths.get(document.getFilePath());
-            Files.deleteIfExists(filePath);
+            if (document.getPreviewKey() != null) {
+                documentStorage.delete(document.getPreviewKey());
+            }
+            if (contentAddressedStore.isBlobPath(document.getSha256(), document.getFilePath())) {
+                // Shared blob: only the last reference removes the file
+                documentBlobRepository.removeReference(document.getSha256());
+                if (documentBlobRepository.deleteIfUnreferenced(document.getSha256()) > 0) {
+                    contentAddressedStore.deleteAfterCommit(document.getSha256());
+                }
+            } else {
+                // File stored before content addressing, owned by this document alone
+                documentStorage.delete(document.getFilePath());
+            }
         } catch (IOException ex) {
             // Log error but continue to delete from DB
-            System.err.println("Could not delete file: " + ex.getMessage());
+            logger.warn("Could not delete file of document {}: {}", documentId, ex.toString());
         }
-
-        documentRepository.delete(document);
     }
 
     @Override
@@ -103,6 +221,34 @@ public class DocumentServiceImpl implements DocumentService {
                 .orElseThrow(() -> new RuntimeException("Document not found with id " + documentId));
     }
 
+    // Streams content to target through a fixed buffer, hashing as it goes, and
+    // stops as soon as more than maxBytes have arrived
+    private StoredContent copyWithDigest(InputStream content, Path target, long maxBytes) throws IOException {
+        MessageDigest digest = sha256Digest();
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long size = 0;
+        try (OutputStream out = Files.newOutputStream(target)) {
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                size += read;
+                if (size > maxBytes) {
+                    throw new MaxUploadSizeExceededException(maxBytes);
+                }
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+            }
+        }
+        return new StoredContent(size, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    private MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
     private String getFileExtension(String fileName) {
         if (fileName == null)
             return "";
@@ -111,4 +257,7 @@ public class DocumentServiceImpl implements DocumentService {
             return "";
         return fileName.substring(lastIndexOf + 1);
     }
+
+    private record StoredContent(long size, String sha256) {
+    }
 }
@@ -0,0 +1,116 @@
+package com.licensing.portal.service.impl;
+
+import com.licensing.portal.service.DocumentStorage;
+import org.springframework.http.ContentDisposition;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+// Documents in an S3-compatible bucket (AWS S3, MinIO, ...), shared by all portal nodes
+public class S3DocumentStorage implements DocumentStorage {
+
+    private final S3Client s3;
+    private final S3Presigner presigner;
+    private final String bucket;
+
+    public S3DocumentStorage(S3Client s3, S3Presigner presigner, String bucket) {
+        this.s3 = s3;
+        this.presigner = presigner;
+        this.bucket = bucket;
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        s3.putObject(PutObjectRequest.builder().bucket(bucket).key(key).build(), RequestBody.fromFile(source));
+        Files.deleteIfExists(source);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        try {
+            s3.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build());
+            return true;
+        } catch (NoSuchKeyException ex) {
+            return false;
+        }
+    }
+
+    @Override
+    public long size(String key) {
+        return s3.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build()).contentLength();
+    }
+
+    @Override
+    public InputStream get(String key) {
+        return s3.getObject(GetObjectRequest.builder().bucket(bucket).key(key).build());
+    }
+
+    @Override
+    public InputStream getRange(String key, long start, long end) {
+        return s3.getObject(GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .range("bytes=" + start + "-" + end)
+                .build());
+    }
+
+    // S3 has no rename: copy, then delete the original
+    @Override
+    public void move(String fromKey, String toKey) {
+        s3.copyObject(CopyObjectRequest.builder()
+                .sourceBucket(bucket)
+                .sourceKey(fromKey)
+                .destinationBucket(bucket)
+                .destinationKey(toKey)
+                .build());
+        delete(fromKey);
+    }
+
+    @Override
+    public void delete(String key) {
+        s3.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build());
+    }
+
+    @Override
+    public Optional<Path> localFile(String key) {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<URI> presignedDownloadUrl(String key, String fileName, String contentType, Duration ttl) {
+        GetObjectRequest request = GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .responseContentType(contentType)
+                .responseContentDisposition(ContentDisposition.attachment()
+                        .filename(fileName, StandardCharsets.UTF_8)
+                        .build()
+                        .toString())
+                .build();
+        GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .getObjectRequest(request)
+                .build();
+        try {
+            return Optional.of(presigner.presignGetObject(presignRequest).url().toURI());
+        } catch (java.net.URISyntaxException ex) {
+            throw new RuntimeException("Could not build pre-signed URL for " + key, ex);
+        }
+    }
+}
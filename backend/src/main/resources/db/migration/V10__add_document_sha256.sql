@@ -0,0 +1,2 @@
+-- SHA-256 of the stored bytes, computed while the upload is streamed
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS sha256 VARCHAR(64);
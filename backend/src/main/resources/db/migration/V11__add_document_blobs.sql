@@ -0,0 +1,10 @@
+-- Content-addressed document storage: one row (and one file) per distinct
+-- SHA-256, counting the documents that reference it
+CREATE TABLE IF NOT EXISTS document_blobs (
+    sha256 VARCHAR(64) PRIMARY KEY,
+    size_bytes BIGINT NOT NULL,
+    ref_count INTEGER NOT NULL,
+    created_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_documents_sha256 ON documents(sha256);
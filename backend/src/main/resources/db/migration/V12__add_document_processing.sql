@@ -0,0 +1,11 @@
+-- Asynchronous post-processing of uploaded documents (scan, preview, text)
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS processing_attempts INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS processing_started_at TIMESTAMP;
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP;
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS processing_error VARCHAR(1000);
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS preview_key VARCHAR(500);
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS extracted_text TEXT;
+
+-- The sweeper only looks at documents still waiting or stuck in processing
+CREATE INDEX IF NOT EXISTS idx_documents_processing_pending ON documents(id)
+    WHERE status IN ('UPLOADED', 'PROCESSING');
@@ -0,0 +1,31 @@
+-- Full-text search over tasks, stores and document text (see SearchRepository).
+-- The tsvector columns are generated, so every insert/update keeps them current.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('russian'::regconfig, coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('russian'::regconfig, coalesce(description, '')), 'B') ||
+    setweight(to_tsvector('russian'::regconfig, coalesce(status_reason, '')), 'C')
+) STORED;
+
+ALTER TABLE stores ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple'::regconfig, coalesce(inn, '') || ' ' || coalesce(mvz, '')), 'A') ||
+    setweight(to_tsvector('russian'::regconfig, coalesce(name, '')), 'A') ||
+    setweight(to_tsvector('russian'::regconfig, coalesce(address, '')), 'B')
+) STORED;
+
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('russian'::regconfig, coalesce(file_name, '')), 'A') ||
+    setweight(to_tsvector('russian'::regconfig, coalesce(extracted_text, '')), 'B')
+) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_tasks_search ON tasks USING gin (search_vector);
+CREATE INDEX IF NOT EXISTS idx_stores_search ON stores USING gin (search_vector);
+CREATE INDEX IF NOT EXISTS idx_documents_search ON documents USING gin (search_vector);
+
+-- Substring and typo-tolerant matches on store names and codes. upper(name) also
+-- serves StoreRepository.findByNameContainingIgnoreCase, which Hibernate renders
+-- as upper(name) LIKE upper(?).
+CREATE INDEX IF NOT EXISTS idx_stores_name_trgm ON stores USING gin (upper(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_stores_inn_trgm ON stores USING gin (inn gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_stores_mvz_trgm ON stores USING gin (mvz gin_trgm_ops);
@@ -0,0 +1,29 @@
+-- Transactional email outbox, drained by EmailDispatcher
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    recipient VARCHAR(500) NOT NULL,
+    subject VARCHAR(500) NOT NULL,
+    body TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    claimed_at TIMESTAMP,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP,
+    sent_at TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS email_outbox_attachments (
+    id BIGSERIAL PRIMARY KEY,
+    email_id BIGINT NOT NULL REFERENCES email_outbox(id) ON DELETE CASCADE,
+    file_name VARCHAR(255) NOT NULL,
+    content_type VARCHAR(255),
+    storage_key VARCHAR(500) NOT NULL,
+    size_bytes BIGINT
+);
+
+CREATE INDEX IF NOT EXISTS idx_email_outbox_attachments_email ON email_outbox_attachments(email_id);
+
+-- The dispatcher only ever polls pending rows by due time
+CREATE INDEX IF NOT EXISTS idx_email_outbox_pending ON email_outbox(next_attempt_at, id)
+    WHERE status = 'PENDING';
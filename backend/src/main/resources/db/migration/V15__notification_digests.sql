@@ -0,0 +1,10 @@
+-- Notification ids come from a pooled sequence (allocationSize = 50) so bulk
+-- inserts from the renewal run are batched, as for tasks in V5
+ALTER TABLE notifications ALTER COLUMN id SET INCREMENT BY 50;
+
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS digested_at TIMESTAMP;
+
+-- The digest only reads notifications that have not been emailed yet
+CREATE INDEX IF NOT EXISTS idx_notifications_undigested ON notifications(user_id, id)
+    WHERE digested_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_notifications_task ON notifications(task_id);
@@ -0,0 +1,3 @@
+-- Unread counter rebuild (GROUP BY user_id WHERE is_read = false), per-user
+-- listing and mark-all-read
+CREATE INDEX IF NOT EXISTS idx_notifications_user_is_read ON notifications(user_id, is_read);
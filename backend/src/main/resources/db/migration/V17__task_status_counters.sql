@@ -0,0 +1,24 @@
+-- Task counts per (store, assignee, license type, status) cell, kept up to date by
+-- TaskStatusCounterService and repaired nightly. 0 stands for "no store" / "no
+-- assignee" so the cells can be a primary key. The table is also mapped
+-- (TaskStatusCounter) and filled on start when empty, so this script is safe to run
+-- after the application has created it.
+CREATE TABLE IF NOT EXISTS task_status_counters (
+    store_id BIGINT NOT NULL,
+    assignee_id BIGINT NOT NULL,
+    license_type VARCHAR(20) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    task_count BIGINT NOT NULL,
+    PRIMARY KEY (store_id, assignee_id, license_type, status)
+);
+
+CREATE INDEX IF NOT EXISTS idx_task_status_counters_assignee ON task_status_counters(assignee_id);
+
+-- Overdue counts for the dashboard
+CREATE INDEX IF NOT EXISTS idx_tasks_deadline_date ON tasks(deadline_date);
+
+INSERT INTO task_status_counters (store_id, assignee_id, license_type, status, task_count)
+SELECT COALESCE(store_id, 0), COALESCE(assignee_id, 0), license_type, COALESCE(status, 'ASSIGNED'), COUNT(*)
+FROM tasks
+GROUP BY 1, 2, 3, 4
+ON CONFLICT DO NOTHING;
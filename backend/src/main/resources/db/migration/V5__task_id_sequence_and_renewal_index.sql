@@ -0,0 +1,7 @@
+-- Task ids now come from a pooled sequence (allocationSize = 50) so Hibernate
+-- can batch INSERTs. Reuse the identity sequence and widen its step to match.
+ALTER TABLE tasks ALTER COLUMN id SET INCREMENT BY 50;
+
+-- Supports the renewal anti-join (open RENEWAL task per store and license type)
+CREATE INDEX IF NOT EXISTS idx_tasks_store_license_action_status
+    ON tasks(store_id, license_type, action_type, status);
@@ -0,0 +1,11 @@
+-- One row per committed store-id partition of a renewal run; a rerun on the
+-- same day skips partitions that already have a row
+CREATE TABLE IF NOT EXISTS renewal_checkpoints (
+    id BIGSERIAL PRIMARY KEY,
+    run_date DATE NOT NULL,
+    range_start BIGINT NOT NULL,
+    range_end BIGINT NOT NULL,
+    tasks_created INTEGER NOT NULL DEFAULT 0,
+    completed_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_renewal_checkpoints_run_range UNIQUE (run_date, range_start)
+);
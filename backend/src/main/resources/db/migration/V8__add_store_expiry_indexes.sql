@@ -0,0 +1,5 @@
+-- Expiry lookups only ever look at active stores
+CREATE INDEX IF NOT EXISTS idx_stores_alcohol_license_expiry
+    ON stores(alcohol_license_expiry) WHERE is_active = TRUE;
+CREATE INDEX IF NOT EXISTS idx_stores_tobacco_license_expiry
+    ON stores(tobacco_license_expiry) WHERE is_active = TRUE;
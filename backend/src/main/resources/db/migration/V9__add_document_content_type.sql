@@ -0,0 +1,2 @@
+-- Content type captured at upload, served back on download
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS content_type VARCHAR(255);
@@ -0,0 +1,43 @@
+package com.licensing.portal.controller;
+
+import com.licensing.portal.support.IntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * /debug/** is open, but reconciling the task counters locks their table and is
+ * for administrators only.
+ */
+class DebugControllerSecurityTest extends IntegrationTest {
+
+    @BeforeEach
+    void setUp() {
+        testData.clean();
+    }
+
+    @Test
+    void anonymousCannotReconcileTaskCounters() throws Exception {
+        mockMvc.perform(post("/debug/reconcile-task-counters"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser(username = "manager", roles = "MANAGER")
+    void nonAdminCannotReconcileTaskCounters() throws Exception {
+        mockMvc.perform(post("/debug/reconcile-task-counters"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void adminCanReconcileTaskCounters() throws Exception {
+        mockMvc.perform(post("/debug/reconcile-task-counters"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isMap());
+    }
+}
@@ -0,0 +1,75 @@
+package com.licensing.portal.controller;
+
+import com.licensing.portal.model.Notification.NotificationType;
+import com.licensing.portal.model.Store;
+import com.licensing.portal.model.Task;
+import com.licensing.portal.model.User;
+import com.licensing.portal.service.NotificationService;
+import com.licensing.portal.support.IntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.licensing.portal.support.QueryBudgetMatchers.sqlStatementsAtMost;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The notification bell is polled by every open page, so its endpoints are held to
+ * far fewer statements than the general query budget.
+ */
+@WithMockUser(username = "reader")
+class NotificationQueryBudgetTest extends IntegrationTest {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        testData.clean();
+        User reader = testData.user("reader", "USER");
+        Store store = testData.store("Bell store");
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            tasks.add(testData.task("Task " + i, store, reader, reader, LocalDate.now().plusDays(10)));
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                notificationService.notifyAssignees(tasks, NotificationType.TASK_ASSIGNED,
+                        task -> "Назначена задача «" + task.getTitle() + "»"));
+    }
+
+    @Test
+    void listingNotificationsIsOneQueryAfterTheUserLookup() throws Exception {
+        // User and roles (cached from then on), then the page of notifications
+        mockMvc.perform(get("/notifications").param("size", "60"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(60))
+                .andExpect(sqlStatementsAtMost(3));
+
+        mockMvc.perform(get("/notifications").param("size", "60"))
+                .andExpect(status().isOk())
+                .andExpect(sqlStatementsAtMost(1));
+    }
+
+    @Test
+    void unreadCountStaysOffTheDatabase() throws Exception {
+        mockMvc.perform(get("/notifications/unread-count"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/notifications/unread-count"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.unread").value(60))
+                .andExpect(sqlStatementsAtMost(0));
+    }
+}
@@ -0,0 +1,107 @@
+package com.licensing.portal.controller;
+
+import com.licensing.portal.model.Store;
+import com.licensing.portal.model.Task;
+import com.licensing.portal.model.User;
+import com.licensing.portal.security.UserDetailsCache;
+import com.licensing.portal.support.IntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Task list endpoints build TaskResponse rows in one joined query, so the number of
+ * SQL statements per request does not grow with the number of tasks (no N+1 on
+ * store, assignee and creator).
+ */
+@WithMockUser(username = "admin")
+class TaskListStatementCountTest extends IntegrationTest {
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    private User admin;
+
+    private Task parent;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        testData.clean();
+        admin = testData.user("admin", "ADMIN");
+        parent = testData.task("Parent", testData.store("Parent store"), admin, admin, LocalDate.now().plusDays(1));
+        // The user cache may still hold the admin of an earlier test; load this one now so
+        // no measured request pays for (or skips) the lookup depending on test order
+        userDetailsCache.invalidate("admin");
+        mockMvc.perform(get("/tasks")).andExpect(status().isOk());
+    }
+
+    @Test
+    void listingAllTasksTakesTheSameStatementsForFiveAndFiftyTasks() throws Exception {
+        addTasks(5);
+        long five = statementsFor(get("/tasks"), 6);
+
+        addTasks(45);
+        long fifty = statementsFor(get("/tasks"), 51);
+
+        assertThat(fifty).isEqualTo(five);
+        // user, joined task rows, document counts, payment counts
+        assertThat(fifty).isLessThanOrEqualTo(5);
+    }
+
+    @Test
+    void upcomingDeadlinesTakeTheSameStatementsForFiveAndFiftyTasks() throws Exception {
+        addTasks(5);
+        long five = statementsFor(get("/tasks/deadlines/upcoming").param("days", "7"), 6);
+
+        addTasks(45);
+        long fifty = statementsFor(get("/tasks/deadlines/upcoming").param("days", "7"), 51);
+
+        assertThat(fifty).isEqualTo(five);
+    }
+
+    @Test
+    void subtasksTakeTheSameStatementsForFiveAndFiftySubtasks() throws Exception {
+        addSubtasks(5);
+        long five = statementsFor(get("/tasks/{id}/subtasks", parent.getId()), 5);
+
+        addSubtasks(45);
+        long fifty = statementsFor(get("/tasks/{id}/subtasks", parent.getId()), 50);
+
+        assertThat(fifty).isEqualTo(five);
+    }
+
+    // Every task gets its own store and users, so lazy loading would show up as extra SELECTs
+    private void addTasks(int count) {
+        for (int i = 0; i < count; i++) {
+            String suffix = String.valueOf(System.nanoTime());
+            Store store = testData.store("Store " + suffix);
+            User assignee = testData.user("assignee" + suffix, "MANAGER");
+            User creator = testData.user("creator" + suffix, "MANAGER");
+            testData.task("Task " + suffix, store, assignee, creator, LocalDate.now().plusDays(3));
+        }
+    }
+
+    private void addSubtasks(int count) {
+        for (int i = 0; i < count; i++) {
+            String suffix = String.valueOf(System.nanoTime());
+            testData.subtask(parent, "Subtask " + suffix, testData.user("assignee" + suffix, "MANAGER"));
+        }
+    }
+
+    private long statementsFor(MockHttpServletRequestBuilder request, int expectedRows) throws Exception {
+        hibernateStatistics().clear();
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(expectedRows));
+        return hibernateStatistics().getPrepareStatementCount();
+    }
+}
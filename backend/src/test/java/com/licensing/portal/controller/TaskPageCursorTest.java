@@ -0,0 +1,71 @@
+package com.licensing.portal.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import com.licensing.portal.model.Store;
+import com.licensing.portal.model.User;
+import com.licensing.portal.support.IntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * /tasks/page cursors: one from the previous page continues the listing, anything the
+ * server did not hand out is the client's mistake (400), not a server error.
+ */
+@WithMockUser(username = "admin")
+class TaskPageCursorTest extends IntegrationTest {
+
+    @BeforeEach
+    void setUp() {
+        testData.clean();
+        User admin = testData.user("admin", "ADMIN");
+        Store store = testData.store("Cursor store");
+        for (int i = 0; i < 3; i++) {
+            testData.task("Task " + i, store, admin, admin, LocalDate.now().plusDays(3));
+        }
+    }
+
+    @Test
+    void nextCursorContinuesTheListing() throws Exception {
+        String body = mockMvc.perform(get("/tasks/page").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = JsonPath.read(body, "$.nextCursor");
+
+        mockMvc.perform(get("/tasks/page").param("size", "2").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not base64!", "t:1"})
+    void cursorThatIsNotBase64IsABadRequest(String cursor) throws Exception {
+        mockMvc.perform(get("/tasks/page").param("cursor", cursor))
+                .andExpect(status().isBadRequest());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"x:12", "t:twelve", "t:"})
+    void cursorWithForeignContentIsABadRequest(String content) throws Exception {
+        mockMvc.perform(get("/tasks/page").param("cursor", encode(content)))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
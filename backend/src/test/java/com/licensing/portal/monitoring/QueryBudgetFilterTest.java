@@ -0,0 +1,144 @@
+package com.licensing.portal.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueryBudgetFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void requestWithinBudgetPasses() throws Exception {
+        MockHttpServletRequest request = request();
+
+        run(filter(true), request, statements(5));
+
+        assertThat(overBudget()).isZero();
+        RequestQueryStats stats = (RequestQueryStats) request.getAttribute(RequestQueryStats.REQUEST_ATTRIBUTE);
+        assertThat(stats.getStatements()).isEqualTo(5);
+        assertThat(meterRegistry.get("http.server.requests.sql.statements").tag("uri", "/tasks")
+                .summary().totalAmount()).isEqualTo(5);
+    }
+
+    @Test
+    void overBudgetRequestFailsAndNamesTheRepeatedStatement() {
+        assertThatThrownBy(() -> run(filter(true), request(), statements(6)))
+                .isInstanceOf(QueryBudgetExceededException.class)
+                .hasMessageContaining("GET /tasks ran 6 SQL statements (budget 5)")
+                .hasMessageContaining("most repeated 6x: select * from stores where id = ?");
+        assertThat(overBudget()).isEqualTo(1);
+    }
+
+    @Test
+    void overBudgetRequestIsCountedWhenOnlyLogging() throws Exception {
+        run(filter(false), request(), statements(6));
+
+        assertThat(overBudget()).isEqualTo(1);
+    }
+
+    @Test
+    void failingRequestKeepsItsOwnExceptionButIsCounted() {
+        HttpServlet failing = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                for (int i = 0; i < 6; i++) {
+                    RequestQueryStats.onStatement("select * from stores where id = ?");
+                }
+                throw new IllegalStateException("handler failed");
+            }
+        };
+
+        assertThatThrownBy(() -> run(filter(true), request(), failing))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(overBudget()).isEqualTo(1);
+    }
+
+    @Test
+    void handlerAnnotationOverridesTheDefaultBudget() throws Exception {
+        MockHttpServletRequest request = request();
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(new BudgetedController(), BudgetedController.class.getMethod("report")));
+
+        run(filter(true), request, statements(8));
+
+        assertThat(overBudget()).isZero();
+        assertThatThrownBy(() -> run(filter(true), request(request), statements(11)))
+                .isInstanceOf(QueryBudgetExceededException.class)
+                .hasMessageContaining("(budget 10)");
+    }
+
+    @Test
+    void statementsOutsideARequestAreNotAttributed() throws Exception {
+        RequestQueryStats.onStatement("select 1");
+        MockHttpServletRequest request = request();
+
+        run(filter(true), request, statements(0));
+
+        RequestQueryStats stats = (RequestQueryStats) request.getAttribute(RequestQueryStats.REQUEST_ATTRIBUTE);
+        assertThat(stats.getStatements()).isZero();
+    }
+
+    private QueryBudgetFilter filter(boolean failOnExceed) {
+        return new QueryBudgetFilter(meterRegistry, 5, Duration.ofSeconds(1), failOnExceed);
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tasks");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/tasks");
+        return request;
+    }
+
+    // A fresh request to the same handler
+    private static MockHttpServletRequest request(MockHttpServletRequest previous) {
+        MockHttpServletRequest request = request();
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                previous.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE));
+        return request;
+    }
+
+    // A handler running the same statement n times, the N+1 shape
+    private static HttpServlet statements(int n) {
+        return new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                for (int i = 0; i < n; i++) {
+                    RequestQueryStats.onStatement("select * from stores where id = ?");
+                }
+            }
+        };
+    }
+
+    private static void run(QueryBudgetFilter filter, MockHttpServletRequest request, HttpServlet handler)
+            throws ServletException, IOException {
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(handler));
+    }
+
+    private double overBudget() {
+        Counter counter = meterRegistry.find(QueryBudgetFilter.OVER_BUDGET_METRIC).tag("uri", "/tasks").counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    static class BudgetedController {
+
+        @QueryBudget(statements = 10)
+        public String report() {
+            return "report";
+        }
+    }
+}
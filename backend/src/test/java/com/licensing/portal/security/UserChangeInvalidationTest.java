@@ -0,0 +1,64 @@
+package com.licensing.portal.security;
+
+import com.licensing.portal.model.User;
+import com.licensing.portal.repository.UserRepository;
+import com.licensing.portal.support.IntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Changes saved on this node reach the cached UserDetails as soon as they commit;
+ * only changes made on other nodes wait for the TTL (see UserDetailsCacheTest).
+ */
+class UserChangeInvalidationTest extends IntegrationTest {
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User manager;
+
+    @BeforeEach
+    void setUp() {
+        testData.clean();
+        manager = testData.user("cached-manager", "MANAGER");
+    }
+
+    @Test
+    void roleChangeIsVisibleOnTheNextLookup() {
+        assertThat(authorities()).containsExactly("ROLE_MANAGER");
+
+        manager.setRoles(new HashSet<>(Set.of("ADMIN")));
+        userRepository.save(manager);
+
+        assertThat(authorities()).containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    void deactivationIsVisibleOnTheNextLookup() {
+        assertThat(userDetailsService.loadUserByUsername("cached-manager").isEnabled()).isTrue();
+
+        manager.setIsActive(false);
+        userRepository.save(manager);
+
+        assertThat(userDetailsService.loadUserByUsername("cached-manager").isEnabled()).isFalse();
+    }
+
+    private Set<String> authorities() {
+        Set<String> authorities = new HashSet<>();
+        for (GrantedAuthority authority : userDetailsService.loadUserByUsername("cached-manager").getAuthorities()) {
+            authorities.add(authority.getAuthority());
+        }
+        return authorities;
+    }
+}
@@ -0,0 +1,117 @@
+package com.licensing.portal.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserDetailsCacheTest {
+
+    private static final Duration TTL = Duration.ofMillis(300);
+
+    // Stands in for the users table; changing it is a change made on another node
+    private final Map<String, String> roleInDatabase = new ConcurrentHashMap<>();
+
+    private final AtomicInteger databaseLoads = new AtomicInteger();
+
+    private final Function<String, UserDetails> loader = username -> {
+        databaseLoads.incrementAndGet();
+        return User.withUsername(username)
+                .password("hash")
+                .roles(roleInDatabase.get(username))
+                .build();
+    };
+
+    @Test
+    void roleChangedElsewhereIsStaleForAtMostTheTtl() throws InterruptedException {
+        UserDetailsCache cache = new UserDetailsCache(100, TTL);
+        roleInDatabase.put("manager", "MANAGER");
+        assertThat(roles(cache.get("manager", loader))).containsExactly("ROLE_MANAGER");
+
+        roleInDatabase.put("manager", "ADMIN");
+        // Inside the window the old role is still served
+        assertThat(roles(cache.get("manager", loader))).containsExactly("ROLE_MANAGER");
+
+        Thread.sleep(TTL.plusMillis(100).toMillis());
+        assertThat(roles(cache.get("manager", loader))).containsExactly("ROLE_ADMIN");
+        assertThat(databaseLoads).hasValue(2);
+    }
+
+    @Test
+    void invalidationClosesTheWindowAtOnce() {
+        UserDetailsCache cache = new UserDetailsCache(100, Duration.ofMinutes(10));
+        roleInDatabase.put("manager", "ADMIN");
+        assertThat(roles(cache.get("manager", loader))).containsExactly("ROLE_ADMIN");
+
+        // Role revoked on this node: UserChangeListener invalidates after commit
+        roleInDatabase.put("manager", "MANAGER");
+        cache.invalidate("manager");
+
+        assertThat(roles(cache.get("manager", loader))).containsExactly("ROLE_MANAGER");
+    }
+
+    @Test
+    void erasingCredentialsOnAReturnedCopyLeavesTheCacheIntact() {
+        UserDetailsCache cache = new UserDetailsCache(100, Duration.ofMinutes(10));
+        roleInDatabase.put("manager", "MANAGER");
+
+        UserDetails first = cache.get("manager", loader);
+        ((CredentialsContainer) first).eraseCredentials();
+
+        assertThat(cache.get("manager", loader).getPassword()).isEqualTo("hash");
+        assertThat(databaseLoads).hasValue(1);
+    }
+
+    @Test
+    void concurrentRequestsForOneUserLoadItOnce() throws InterruptedException {
+        UserDetailsCache cache = new UserDetailsCache(100, Duration.ofMinutes(10));
+        roleInDatabase.put("manager", "MANAGER");
+        Function<String, UserDetails> slowLoader = username -> {
+            sleep(50);
+            return loader.apply(username);
+        };
+
+        ExecutorService threads = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < 64; i++) {
+            threads.submit(() -> {
+                start.await();
+                return cache.get("manager", slowLoader);
+            });
+        }
+        start.countDown();
+        threads.shutdown();
+        assertThat(threads.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(databaseLoads).hasValue(1);
+    }
+
+    private static Set<String> roles(UserDetails userDetails) {
+        return userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
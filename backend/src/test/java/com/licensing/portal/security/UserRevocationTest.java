@@ -0,0 +1,102 @@
+package com.licensing.portal.security;
+
+import com.licensing.portal.model.User;
+import com.licensing.portal.repository.UserRepository;
+import com.licensing.portal.support.IntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Claims-only tokens of users that are deactivated or deleted, here or on another
+ * node, are rejected and stay rejected across revocation cache refreshes.
+ */
+@TestPropertySource(properties = "jwt.claims-auth.enabled=true")
+class UserRevocationTest extends IntegrationTest {
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private UserRevocationCache revocationCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        testData.clean();
+        revocationCache.refresh();
+        user = testData.user("revoked-user", "MANAGER");
+        token = tokenFor(user);
+        expectStatus(200);
+    }
+
+    @Test
+    void deletedUserStaysRejectedAfterRefresh() throws Exception {
+        userRepository.delete(user);
+        expectStatus(401);
+
+        revocationCache.refresh();
+
+        expectStatus(401);
+    }
+
+    @Test
+    void userDeletedOnAnotherNodeIsRejectedAfterRefresh() throws Exception {
+        // Straight through JDBC: no entity listener on this node hears about it
+        jdbcTemplate.update("DELETE FROM user_roles WHERE user_id = ?", user.getId());
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+
+        revocationCache.refresh();
+
+        expectStatus(401);
+    }
+
+    @Test
+    void userDeactivatedOnAnotherNodeIsRejectedAfterRefresh() throws Exception {
+        jdbcTemplate.update("UPDATE users SET is_active = false WHERE id = ?", user.getId());
+
+        revocationCache.refresh();
+
+        expectStatus(401);
+    }
+
+    @Test
+    void userCreatedOnAnotherNodeIsAcceptedBeforeTheNextRefresh() throws Exception {
+        Long id = jdbcTemplate.queryForObject("INSERT INTO users (username, password_hash, email, full_name, "
+                + "is_active) VALUES ('remote-user', 'not-used', 'remote-user@example.com', 'Remote', true) "
+                + "RETURNING id", Long.class);
+        jdbcTemplate.update("INSERT INTO user_roles (user_id, role) VALUES (?, 'MANAGER')", id);
+        token = tokenFor(userRepository.findById(id).orElseThrow());
+
+        expectStatus(200);
+    }
+
+    private String tokenFor(User user) {
+        org.springframework.security.core.userdetails.User principal =
+                new org.springframework.security.core.userdetails.User(user.getUsername(), "",
+                        AuthorityUtils.createAuthorityList("ROLE_MANAGER"));
+        return tokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()), user);
+    }
+
+    private void expectStatus(int status) throws Exception {
+        mockMvc.perform(get("/notifications/unread-count").header("Authorization", "Bearer " + token))
+                .andExpect(status().is(status));
+    }
+}
@@ -0,0 +1,83 @@
+package com.licensing.portal.service;
+
+import com.licensing.portal.model.Document;
+import com.licensing.portal.model.Document.DocumentStatus;
+import com.licensing.portal.model.Task;
+import com.licensing.portal.model.User;
+import com.licensing.portal.repository.DocumentRepository;
+import com.licensing.portal.support.IntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Documents abandoned in PROCESSING (the worker's node died) are released by the
+ * sweep, and their abandoned run counts against max-attempts (3 by default) like a
+ * failed one, so a document that keeps killing its worker ends up FAILED.
+ */
+class DocumentProcessingSweepTest extends IntegrationTest {
+
+    @Autowired
+    private DocumentProcessingPipeline pipeline;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    private Task task;
+
+    @BeforeEach
+    void setUp() {
+        testData.clean();
+        User manager = testData.user("sweeper", "MANAGER");
+        task = testData.task("Sweep", testData.store("Sweep store"), manager, manager, LocalDate.now());
+    }
+
+    @Test
+    void abandonedDocumentWithAttemptsLeftIsRequeuedAfterTheBackoff() {
+        Long id = processing(1, LocalDateTime.now().minusHours(1));
+
+        pipeline.sweep();
+
+        Document document = documentRepository.findById(id).orElseThrow();
+        assertThat(document.getStatus()).isEqualTo(DocumentStatus.UPLOADED);
+        assertThat(document.getProcessingAttempts()).isEqualTo(1);
+        assertThat(document.getNextAttemptAt()).isAfter(LocalDateTime.now());
+        assertThat(document.getProcessingError()).isNotBlank();
+    }
+
+    @Test
+    void abandonedDocumentOnItsLastAttemptFails() {
+        Long id = processing(3, LocalDateTime.now().minusHours(1));
+
+        pipeline.sweep();
+
+        assertThat(documentRepository.findById(id).orElseThrow().getStatus()).isEqualTo(DocumentStatus.FAILED);
+    }
+
+    @Test
+    void documentStillBeingProcessedIsLeftAlone() {
+        Long id = processing(3, LocalDateTime.now().minusMinutes(1));
+
+        pipeline.sweep();
+
+        assertThat(documentRepository.findById(id).orElseThrow().getStatus()).isEqualTo(DocumentStatus.PROCESSING);
+    }
+
+    // As a worker leaves it after claiming: status and attempt count already updated
+    private Long processing(int attempts, LocalDateTime startedAt) {
+        Document document = new Document();
+        document.setTask(task);
+        document.setDocumentType("LICENSE");
+        document.setFileName("scan.pdf");
+        document.setFilePath("missing/scan.pdf");
+        document.setStatus(DocumentStatus.PROCESSING);
+        document.setProcessingAttempts(attempts);
+        document.setProcessingStartedAt(startedAt);
+        return documentRepository.save(document).getId();
+    }
+}
@@ -0,0 +1,114 @@
+package com.licensing.portal.service;
+
+import com.licensing.portal.model.Document;
+import com.licensing.portal.model.Task;
+import com.licensing.portal.model.User;
+import com.licensing.portal.repository.DocumentRepository;
+import com.licensing.portal.support.IntegrationTest;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A slow upload must not hold a pooled connection while the client is sending: the
+ * body is read before any database work starts.
+ */
+class DocumentUploadConnectionTest extends IntegrationTest {
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${documents.temp-dir}")
+    private String tempDir;
+
+    private HikariDataSource pool;
+
+    private Task task;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = dataSource.unwrap(HikariDataSource.class);
+        testData.clean();
+        User manager = testData.user("uploader", "MANAGER");
+        task = testData.task("Upload", testData.store("Upload store"), manager, manager, LocalDate.now());
+    }
+
+    @Test
+    void noConnectionIsHeldWhileTheBodyIsRead() {
+        ConnectionWatchingContent content = new ConnectionWatchingContent(new byte[256 * 1024]);
+
+        Document uploaded = documentService.uploadDocument(task.getId(), content, "scan.pdf", "application/pdf",
+                -1, "uploader");
+
+        assertThat(content.reads).isGreaterThan(1);
+        assertThat(content.maxActiveConnections).isZero();
+        assertThat(documentRepository.findById(uploaded.getId())).isPresent();
+        documentService.deleteDocument(uploaded.getId());
+    }
+
+    @Test
+    void unknownTaskFailsAfterReadingAndLeavesNoTempFile() throws IOException {
+        assertThatThrownBy(() -> documentService.uploadDocument(-1L, new ByteArrayInputStream(new byte[1024]),
+                "scan.pdf", "application/pdf", 1024, "uploader"))
+                .hasMessageContaining("Task not found");
+
+        assertThat(documentRepository.count()).isZero();
+        try (Stream<Path> files = Files.list(Paths.get(tempDir))) {
+            assertThat(files.filter(file -> file.getFileName().toString().startsWith(".upload-"))).isEmpty();
+        }
+    }
+
+    // Records the pool's busy connections on every read, i.e. while the "client" is sending
+    private final class ConnectionWatchingContent extends InputStream {
+
+        private final InputStream delegate;
+
+        private int reads;
+
+        private int maxActiveConnections;
+
+        private ConnectionWatchingContent(byte[] content) {
+            this.delegate = new ByteArrayInputStream(content);
+        }
+
+        @Override
+        public int read() throws IOException {
+            watch();
+            return delegate.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            watch();
+            return delegate.read(buffer, offset, Math.min(length, 16 * 1024));
+        }
+
+        private void watch() {
+            reads++;
+            int active = pool.getHikariPoolMXBean().getActiveConnections();
+            maxActiveConnections = Math.max(maxActiveConnections, active);
+        }
+    }
+}
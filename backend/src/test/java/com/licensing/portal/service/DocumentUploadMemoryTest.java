@@ -0,0 +1,114 @@
+package com.licensing.portal.service;
+
+import com.licensing.portal.model.Document;
+import com.licensing.portal.model.Task;
+import com.licensing.portal.model.User;
+import com.licensing.portal.support.IntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A 200 MB upload must stream through a fixed buffer: neither the uploading thread's
+ * allocations nor the heap in use come anywhere near the file size.
+ */
+class DocumentUploadMemoryTest extends IntegrationTest {
+
+    private static final long UPLOAD_SIZE = 200L * 1024 * 1024;
+
+    private static final long MB = 1024 * 1024;
+
+    @Autowired
+    private DocumentService documentService;
+
+    private Task task;
+
+    private Document uploaded;
+
+    @BeforeEach
+    void setUp() {
+        testData.clean();
+        User manager = testData.user("uploader", "MANAGER");
+        task = testData.task("Upload", testData.store("Upload store"), manager, manager, LocalDate.now());
+    }
+
+    @AfterEach
+    void removeUpload() {
+        if (uploaded != null) {
+            documentService.deleteDocument(uploaded.getId());
+        }
+    }
+
+    @Test
+    void largeUploadIsStreamedWithBoundedMemory() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicBoolean uploading = new AtomicBoolean(true);
+        Thread sampler = new Thread(() -> {
+            while (uploading.get()) {
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                Thread.onSpinWait();
+            }
+        });
+        sampler.start();
+
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        try {
+            uploaded = documentService.uploadDocument(task.getId(), new GeneratedContent(UPLOAD_SIZE), "archive.zip",
+                    "application/zip", UPLOAD_SIZE, "uploader");
+        } finally {
+            uploading.set(false);
+            sampler.join();
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        assertThat(uploaded.getFileSize()).isEqualTo(UPLOAD_SIZE);
+        // The copy buffer and per-request objects; a buffered upload allocates at least the file size
+        assertThat(allocated).isLessThan(32 * MB);
+        // Other threads produce some garbage too, but never a whole file's worth
+        assertThat(peak.get() - baseline).isLessThan(UPLOAD_SIZE / 2);
+    }
+
+    // Deterministic bytes without holding them in memory
+    private static final class GeneratedContent extends InputStream {
+
+        private final long size;
+
+        private long position;
+
+        private GeneratedContent(long size) {
+            this.size = size;
+        }
+
+        @Override
+        public int read() {
+            return position < size ? (int) (position++ * 31 & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (position >= size) {
+                return -1;
+            }
+            int count = (int) Math.min(length, size - position);
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = (byte) (position++ * 31);
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.licensing.portal.service;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.licensing.portal.model.OutboxEmail;
+import com.licensing.portal.model.OutboxEmail.OutboxStatus;
+import com.licensing.portal.repository.OutboxEmailRepository;
+import com.licensing.portal.support.IntegrationTest;
+import jakarta.mail.BodyPart;
+import jakarta.mail.Message;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeMultipart;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The outbox end to end: queued in the caller's transaction, delivered by the
+ * dispatcher to a real SMTP server, and the result recorded on the row.
+ */
+class EmailDispatcherTest extends IntegrationTest {
+
+    @RegisterExtension
+    static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withDisabledAuthentication());
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private EmailDispatcher emailDispatcher;
+
+    @Autowired
+    private OutboxEmailRepository outboxEmailRepository;
+
+    @Autowired
+    private DocumentStorage documentStorage;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        testData.clean();
+    }
+
+    @Test
+    void queuedEmailIsDeliveredAndMarkedSent() throws Exception {
+        Long id = emailService.queueEmail("manager@example.test", "Licence expires", "Renew by Friday");
+
+        assertThat(smtp.getReceivedMessages()).isEmpty();
+        emailDispatcher.dispatch();
+
+        MimeMessage[] received = smtp.getReceivedMessages();
+        assertThat(received).hasSize(1);
+        assertThat(received[0].getSubject()).isEqualTo("Licence expires");
+        assertThat(received[0].getRecipients(Message.RecipientType.TO)[0].toString())
+                .isEqualTo("manager@example.test");
+        assertThat(GreenMailUtil.getBody(received[0])).contains("Renew by Friday");
+
+        OutboxEmail email = outboxEmailRepository.findById(id).orElseThrow();
+        assertThat(email.getStatus()).isEqualTo(OutboxStatus.SENT);
+        assertThat(email.getAttempts()).isEqualTo(1);
+        assertThat(email.getSentAt()).isNotNull();
+    }
+
+    @Test
+    void batchGoesOutInOnePoll() {
+        for (int i = 0; i < 5; i++) {
+            emailService.queueEmail("user" + i + "@example.test", "Digest " + i, "Body " + i);
+        }
+
+        emailDispatcher.dispatch();
+
+        assertThat(smtp.getReceivedMessages()).hasSize(5);
+        assertThat(emailDispatcher.stats()).containsEntry("SENT", 5L).containsEntry("PENDING", 0L);
+    }
+
+    @Test
+    void attachmentIsSentAndThenRemovedFromStorage() throws Exception {
+        MultipartFile file = new MockMultipartFile("files", "licence.pdf", "application/pdf",
+                "%PDF-1.4 licence".getBytes(StandardCharsets.US_ASCII));
+        Long id = emailService.queueEmailWithAttachments("manager@example.test", "Licence", "Attached",
+                new MultipartFile[] {file});
+        String storageKey = outboxEmailRepository.findWithAttachments(List.of(id)).get(0)
+                .getAttachments().get(0).getStorageKey();
+        assertThat(documentStorage.exists(storageKey)).isTrue();
+
+        emailDispatcher.dispatch();
+
+        MimeMessage[] received = smtp.getReceivedMessages();
+        assertThat(received).hasSize(1);
+        MimeMultipart content = (MimeMultipart) received[0].getContent();
+        BodyPart attachment = content.getBodyPart(1);
+        assertThat(attachment.getFileName()).isEqualTo("licence.pdf");
+        assertThat(attachment.getInputStream().readAllBytes())
+                .isEqualTo("%PDF-1.4 licence".getBytes(StandardCharsets.US_ASCII));
+        assertThat(documentStorage.exists(storageKey)).isFalse();
+    }
+
+    @Test
+    void rolledBackEmailIsNeverSent() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            emailService.queueEmail("manager@example.test", "Never", "Rolled back");
+            status.setRollbackOnly();
+        });
+
+        emailDispatcher.dispatch();
+
+        assertThat(smtp.getReceivedMessages()).isEmpty();
+        assertThat(outboxEmailRepository.count()).isZero();
+    }
+
+    @Test
+    void unreachableServerSchedulesARetry() {
+        Long id = emailService.queueEmail("manager@example.test", "Later", "Retry me");
+        smtp.stop();
+
+        emailDispatcher.dispatch();
+
+        OutboxEmail email = outboxEmailRepository.findById(id).orElseThrow();
+        assertThat(email.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(email.getAttempts()).isEqualTo(1);
+        assertThat(email.getLastError()).isNotBlank();
+        assertThat(email.getNextAttemptAt()).isAfter(LocalDateTime.now());
+    }
+}
@@ -0,0 +1,204 @@
+package com.licensing.portal.service;
+
+import com.licensing.portal.service.impl.LocalDocumentStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileDownloadServiceTest {
+
+    private static final String KEY = "blobs/ab/cd/abcd";
+    private static final String ETAG = "\"abcd\"";
+    private static final long LAST_MODIFIED = 1_700_000_000_000L;
+
+    @TempDir
+    Path root;
+
+    private final byte[] content = new byte[1000];
+
+    private FileDownloadService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        Path file = root.resolve(KEY);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(LAST_MODIFIED));
+
+        service = serviceFor(new LocalDocumentStorage(root));
+    }
+
+    @Test
+    void servesTheWholeFileWithValidators() throws IOException {
+        MockHttpServletResponse response = serve(get());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+        assertThat(response.getDateHeader(HttpHeaders.LAST_MODIFIED)).isEqualTo(LAST_MODIFIED);
+        assertThat(response.getContentLengthLong()).isEqualTo(1000);
+        assertThat(response.getContentAsByteArray()).isEqualTo(content);
+    }
+
+    @Test
+    void servesASingleRange() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=100-199");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 100-199/1000");
+        assertThat(response.getContentLengthLong()).isEqualTo(100);
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(content, 100, 200));
+    }
+
+    @Test
+    void servesSuffixAndOpenEndedRanges() throws IOException {
+        MockHttpServletRequest suffix = get();
+        suffix.addHeader(HttpHeaders.RANGE, "bytes=-100");
+        MockHttpServletResponse suffixResponse = serve(suffix);
+        assertThat(suffixResponse.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 900-999/1000");
+        assertThat(suffixResponse.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(content, 900, 1000));
+
+        MockHttpServletRequest openEnded = get();
+        openEnded.addHeader(HttpHeaders.RANGE, "bytes=990-5000");
+        MockHttpServletResponse openEndedResponse = serve(openEnded);
+        assertThat(openEndedResponse.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 990-999/1000");
+        assertThat(openEndedResponse.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(content, 990, 1000));
+    }
+
+    @Test
+    void answersNotModifiedForACurrentCopy() throws IOException {
+        MockHttpServletRequest byEtag = get();
+        byEtag.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+        MockHttpServletResponse etagResponse = serve(byEtag);
+        assertThat(etagResponse.getStatus()).isEqualTo(304);
+        assertThat(etagResponse.getContentAsByteArray()).isEmpty();
+
+        MockHttpServletRequest byDate = get();
+        byDate.addHeader(HttpHeaders.IF_MODIFIED_SINCE, LAST_MODIFIED + 60_000);
+        assertThat(serve(byDate).getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    void servesTheWholeFileWhenTheCopyIsOutdated() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\"");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(content);
+    }
+
+    @Test
+    void ignoresMalformedAndUnsupportedRanges() throws IOException {
+        for (String range : new String[] {"bytes=abc", "bytes=5-1", "items=0-5", "bytes", "bytes=0-1,4-5"}) {
+            MockHttpServletRequest request = get();
+            request.addHeader(HttpHeaders.RANGE, range);
+
+            MockHttpServletResponse response = serve(request);
+
+            assertThat(response.getStatus()).as(range).isEqualTo(200);
+            assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).as(range).isNull();
+            assertThat(response.getContentAsByteArray()).as(range).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void rejectsRangesPastTheEnd() throws IOException {
+        for (String range : new String[] {"bytes=1000-", "bytes=2000-3000", "bytes=-0"}) {
+            MockHttpServletRequest request = get();
+            request.addHeader(HttpHeaders.RANGE, range);
+
+            MockHttpServletResponse response = serve(request);
+
+            assertThat(response.getStatus()).as(range).isEqualTo(416);
+            assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).as(range).isEqualTo("bytes */1000");
+        }
+    }
+
+    @Test
+    void staleIfRangeGetsTheWholeFile() throws IOException {
+        MockHttpServletRequest stale = get();
+        stale.addHeader(HttpHeaders.RANGE, "bytes=0-9");
+        stale.addHeader(HttpHeaders.IF_RANGE, "\"other\"");
+        assertThat(serve(stale).getStatus()).isEqualTo(200);
+
+        MockHttpServletRequest current = get();
+        current.addHeader(HttpHeaders.RANGE, "bytes=0-9");
+        current.addHeader(HttpHeaders.IF_RANGE, ETAG);
+        assertThat(serve(current).getStatus()).isEqualTo(206);
+    }
+
+    @Test
+    void headRequestSendsHeadersOnly() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("HEAD", "/documents/1/download");
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-9");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentLengthLong()).isEqualTo(10);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void remoteObjectsAreStreamedWithARangedRead() throws IOException {
+        // Same files, but without local paths, as with the S3 backend
+        service = serviceFor(new LocalDocumentStorage(root) {
+            @Override
+            public Optional<Path> localFile(String key) {
+                return Optional.empty();
+            }
+        });
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=500-549");
+
+        MockHttpServletResponse response = serveRemote(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 500-549/1000");
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(content, 500, 550));
+    }
+
+    private static FileDownloadService serviceFor(DocumentStorage storage) {
+        FileDownloadService service = new FileDownloadService();
+        ReflectionTestUtils.setField(service, "storage", storage);
+        return service;
+    }
+
+    private static MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/documents/1/download");
+    }
+
+    private MockHttpServletResponse serve(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        service.serve(KEY, content.length, LAST_MODIFIED, "application/pdf", "licence.pdf", ETAG, request, response);
+        return response;
+    }
+
+    // Remote objects: length and modification time come from the document row
+    private MockHttpServletResponse serveRemote(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        service.serve(KEY, -1, LAST_MODIFIED, "application/pdf", "licence.pdf", ETAG, request, response);
+        return response;
+    }
+}
@@ -0,0 +1,64 @@
+package com.licensing.portal.service;
+
+import com.licensing.portal.dto.RenewalRunResult;
+import com.licensing.portal.model.Store;
+import com.licensing.portal.model.Task;
+import com.licensing.portal.support.IntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The renewal run skips partitions on the store expiry index, which only follows this
+ * node's writes between reloads. An expiry set on another node must still be renewed.
+ */
+@TestPropertySource(properties = "renewal.expiry-index-max-age=PT0S")
+class LicenseRenewalExpiryIndexTest extends IntegrationTest {
+
+    @Autowired
+    private LicenseRenewalScheduler renewalScheduler;
+
+    @Autowired
+    private StoreExpiryIndex storeExpiryIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Store store;
+
+    @BeforeEach
+    void setUp() {
+        testData.clean();
+        testData.user("manager", "MANAGER");
+        store = testData.store("Renewal store");
+        storeExpiryIndex.rebuild();
+        // Straight through JDBC: no entity listener on this node hears about it
+        jdbcTemplate.update("UPDATE stores SET alcohol_license_expiry = ? WHERE id = ?",
+                LocalDate.now().plusMonths(1), store.getId());
+    }
+
+    @Test
+    void expirySetOnAnotherNodeIsRenewed() {
+        RenewalRunResult result = renewalScheduler.createRenewalTasks();
+
+        assertThat(result.getTasksCreated()).isEqualTo(1);
+    }
+
+    @Test
+    void indexIsOnlyReloadedOnceOlderThanTheMaxAge() {
+        LocalDate upTo = LocalDate.now().plusMonths(3);
+
+        storeExpiryIndex.rebuildIfOlderThan(Duration.ofHours(1));
+        assertThat(storeExpiryIndex.findExpiring(Task.LicenseType.ALCOHOL, upTo)).isEmpty();
+
+        storeExpiryIndex.rebuildIfOlderThan(Duration.ZERO);
+        assertThat(storeExpiryIndex.findExpiring(Task.LicenseType.ALCOHOL, upTo)).containsExactly(store.getId());
+    }
+}
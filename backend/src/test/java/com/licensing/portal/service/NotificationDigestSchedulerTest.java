@@ -0,0 +1,100 @@
+package com.licensing.portal.service;
+
+import com.licensing.portal.model.Notification.NotificationType;
+import com.licensing.portal.model.OutboxEmail;
+import com.licensing.portal.model.Store;
+import com.licensing.portal.model.Task;
+import com.licensing.portal.model.User;
+import com.licensing.portal.repository.OutboxEmailRepository;
+import com.licensing.portal.support.IntegrationTest;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A digest run costs a fixed number of statements per user with news, however many
+ * notifications each of them has piled up.
+ */
+class NotificationDigestSchedulerTest extends IntegrationTest {
+
+    @Autowired
+    private NotificationDigestScheduler digestScheduler;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private OutboxEmailRepository outboxEmailRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void oneEmailPerUserListingTheLatestNotifications() {
+        prepare(3, 30);
+
+        assertThat(digestScheduler.sendDigests()).isEqualTo(3);
+
+        List<OutboxEmail> emails = outboxEmailRepository.findAll();
+        assertThat(emails).extracting(OutboxEmail::getRecipient)
+                .containsExactlyInAnyOrder("user0@example.com", "user1@example.com", "user2@example.com");
+        assertThat(emails.get(0).getSubject()).endsWith("— 30");
+        // max-items (20) listed, the rest counted
+        assertThat(emails.get(0).getBody()).contains("… и ещё 10");
+        // Everything was covered: the next window has nothing to send
+        assertThat(digestScheduler.sendDigests()).isZero();
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithNotificationsPerUser() {
+        long few = statementsForDigest(3, 5);
+        long many = statementsForDigest(3, 200);
+
+        assertThat(many).isEqualTo(few);
+    }
+
+    @Test
+    void statementCountGrowsWithUsers() {
+        long threeUsers = statementsForDigest(3, 5);
+        long sixUsers = statementsForDigest(6, 5);
+
+        assertThat(sixUsers).isGreaterThan(threeUsers);
+        // Same cost for every additional user
+        assertThat(statementsForDigest(9, 5) - sixUsers).isEqualTo(sixUsers - threeUsers);
+    }
+
+    private long statementsForDigest(int users, int tasksPerUser) {
+        prepare(users, tasksPerUser);
+        Statistics statistics = hibernateStatistics();
+        statistics.clear();
+
+        assertThat(digestScheduler.sendDigests()).isEqualTo(users);
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Users with one TASK_ASSIGNED notification per task, none digested yet
+    private void prepare(int users, int tasksPerUser) {
+        testData.clean();
+        User manager = testData.user("manager", "MANAGER");
+        Store store = testData.store("Digest store");
+        List<Task> tasks = new ArrayList<>();
+        for (int u = 0; u < users; u++) {
+            User user = testData.user("user" + u, "USER");
+            for (int t = 0; t < tasksPerUser; t++) {
+                tasks.add(testData.task("Task " + u + "-" + t, store, user, manager, LocalDate.now().plusDays(30)));
+            }
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                notificationService.notifyAssignees(tasks, NotificationType.TASK_ASSIGNED,
+                        task -> "Назначена задача «" + task.getTitle() + "»"));
+    }
+}
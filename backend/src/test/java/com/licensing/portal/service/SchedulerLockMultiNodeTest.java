@@ -0,0 +1,150 @@
+package com.licensing.portal.service;
+
+import com.licensing.portal.PortalApplication;
+import com.licensing.portal.support.EmbeddedDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two application contexts on one database stand in for two backend nodes.
+ */
+class SchedulerLockMultiNodeTest {
+
+    private static final String JOB = "multi-node-test";
+
+    private static final Duration SHORT_LEASE = Duration.ofSeconds(3);
+
+    private ConfigurableApplicationContext nodeA;
+
+    private ConfigurableApplicationContext nodeB;
+
+    @BeforeEach
+    void startNodes() {
+        nodeA = startNode();
+        nodeB = startNode();
+        jdbc(nodeA).update("DELETE FROM scheduler_locks WHERE name = ?", JOB);
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    void onlyOneRunHoldsTheLeaseAtATime() {
+        Optional<SchedulerLockService.Lease> leaseA = lockService(nodeA).tryAcquire(JOB, Duration.ofSeconds(30));
+        assertThat(leaseA).isPresent();
+
+        assertThat(lockService(nodeB).tryAcquire(JOB, Duration.ofSeconds(30))).isEmpty();
+        // A second run on the same node (cron and a /debug trigger) is excluded as well
+        assertThat(lockService(nodeA).tryAcquire(JOB, Duration.ofSeconds(30))).isEmpty();
+
+        leaseA.get().close();
+
+        Optional<SchedulerLockService.Lease> leaseB = lockService(nodeB).tryAcquire(JOB, Duration.ofSeconds(30));
+        assertThat(leaseB).isPresent();
+        leaseB.get().close();
+    }
+
+    @Test
+    void leaseIsRenewedWhileTheRunLasts() throws InterruptedException {
+        try (SchedulerLockService.Lease lease = lockService(nodeA).tryAcquire(JOB, SHORT_LEASE).orElseThrow()) {
+            // Well past the lease duration: only renewals keep it
+            Thread.sleep(SHORT_LEASE.multipliedBy(2).plusSeconds(1).toMillis());
+
+            assertThat(lease.isHeld()).isTrue();
+            assertThat(inTransaction(nodeA, lease)).isTrue();
+            assertThat(lockService(nodeB).tryAcquire(JOB, SHORT_LEASE)).isEmpty();
+        }
+    }
+
+    @Test
+    void anotherNodeTakesOverWhenTheHolderDies() throws InterruptedException {
+        assertThat(lockService(nodeA).tryAcquire(JOB, SHORT_LEASE)).isPresent();
+        assertThat(lockService(nodeB).tryAcquire(JOB, SHORT_LEASE)).isEmpty();
+
+        // Node A goes away without releasing the lease; its renewals stop with it
+        nodeA.close();
+
+        SchedulerLockService lockB = lockService(nodeB);
+        Holder<SchedulerLockService.Lease> taken = new Holder<>();
+        assertThat(waitFor(Duration.ofSeconds(10), () -> {
+            lockB.tryAcquire(JOB, SHORT_LEASE).ifPresent(lease -> taken.value = lease);
+            return taken.value != null;
+        })).isTrue();
+        taken.value.close();
+    }
+
+    @Test
+    void holderStopsOnceItsLeaseWasTakenOver() throws InterruptedException {
+        try (SchedulerLockService.Lease lease = lockService(nodeA).tryAcquire(JOB, SHORT_LEASE).orElseThrow()) {
+            // As if node A had stalled past the lease and another node took over
+            jdbc(nodeB).update("UPDATE scheduler_locks SET locked_by = 'other-node/run', "
+                    + "locked_until = now() + interval '1 minute' WHERE name = ?", JOB);
+
+            assertThat(inTransaction(nodeA, lease)).isFalse();
+            assertThat(lease.isHeld()).isFalse();
+        }
+        // Closing the lost lease must not release the new holder's lease
+        assertThat(lockService(nodeB).tryAcquire(JOB, SHORT_LEASE)).isEmpty();
+    }
+
+    @Test
+    void failedRenewalStopsTheHolder() throws InterruptedException {
+        try (SchedulerLockService.Lease lease = lockService(nodeA).tryAcquire(JOB, SHORT_LEASE).orElseThrow()) {
+            jdbc(nodeB).update("UPDATE scheduler_locks SET locked_by = 'other-node/run' WHERE name = ?", JOB);
+
+            // The next renewal finds the lease gone, without the job having to ask
+            assertThat(waitFor(SHORT_LEASE, () -> !lease.isHeld())).isTrue();
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(PortalApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run(EmbeddedDatabase.arguments());
+    }
+
+    private static SchedulerLockService lockService(ConfigurableApplicationContext node) {
+        return node.getBean(SchedulerLockService.class);
+    }
+
+    private static JdbcTemplate jdbc(ConfigurableApplicationContext node) {
+        return node.getBean(JdbcTemplate.class);
+    }
+
+    private static boolean inTransaction(ConfigurableApplicationContext node, SchedulerLockService.Lease lease) {
+        TransactionTemplate transaction = new TransactionTemplate(node.getBean(PlatformTransactionManager.class));
+        return Boolean.TRUE.equals(transaction.execute(status -> lease.holdInTransaction()));
+    }
+
+    private static boolean waitFor(Duration timeout, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(100);
+        }
+        return condition.getAsBoolean();
+    }
+
+    private static final class Holder<T> {
+        private T value;
+    }
+}
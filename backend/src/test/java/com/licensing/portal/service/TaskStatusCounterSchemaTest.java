@@ -0,0 +1,102 @@
+package com.licensing.portal.service;
+
+import com.licensing.portal.PortalApplication;
+import com.licensing.portal.model.Store;
+import com.licensing.portal.model.Task;
+import com.licensing.portal.model.User;
+import com.licensing.portal.support.EmbeddedDatabase;
+import com.licensing.portal.support.TestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A database the V17 migration never ran on: ddl-auto creates task_status_counters,
+ * task writes keep committing, and the first start fills the counters from the
+ * tasks already there.
+ */
+class TaskStatusCounterSchemaTest {
+
+    private static final String DATABASE = "portal_without_v17";
+
+    private ConfigurableApplicationContext context;
+
+    @AfterEach
+    void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Test
+    void taskWritesCommitWithoutTheMigration() {
+        String[] arguments = EmbeddedDatabase.emptyDatabaseArguments(DATABASE);
+        context = start(arguments);
+
+        createTasks(1);
+
+        assertThat(counters()).containsEntry("ASSIGNED", 1L);
+    }
+
+    @Test
+    void emptyCountersAreFilledOnStart() {
+        String[] arguments = EmbeddedDatabase.emptyDatabaseArguments(DATABASE);
+        context = start(arguments);
+        createTasks(2);
+        jdbc().update("DELETE FROM task_status_counters");
+        context.close();
+
+        context = start(arguments);
+
+        assertThat(counters()).containsEntry("ASSIGNED", 2L);
+    }
+
+    private static ConfigurableApplicationContext start(String[] arguments) {
+        String[] withoutMigrations = new String[arguments.length + 1];
+        System.arraycopy(arguments, 0, withoutMigrations, 0, arguments.length);
+        withoutMigrations[arguments.length] = "--spring.sql.init.mode=never";
+        return new SpringApplicationBuilder(PortalApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run(withoutMigrations);
+    }
+
+    // Saved and counted in one transaction, as TaskService does
+    private void createTasks(int count) {
+        TestData testData = context.getAutowireCapableBeanFactory().createBean(TestData.class);
+        TaskStatusCounterService counterService = context.getBean(TaskStatusCounterService.class);
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).executeWithoutResult(status -> {
+            User manager = testData.user("counted-manager", "MANAGER");
+            Store store = testData.store("Counted store");
+            for (int i = 0; i < count; i++) {
+                Task task = testData.task("Counted " + i, store, manager, manager, LocalDate.now().plusDays(5));
+                counterService.created(task);
+            }
+        });
+    }
+
+    // status -> count over all cells
+    private Map<String, Long> counters() {
+        Map<String, Long> counts = new HashMap<>();
+        jdbc().query("SELECT status, SUM(task_count) FROM task_status_counters GROUP BY status",
+                row -> {
+                    counts.put(row.getString(1), row.getLong(2));
+                });
+        return counts;
+    }
+
+    private JdbcTemplate jdbc() {
+        return context.getBean(JdbcTemplate.class);
+    }
+}
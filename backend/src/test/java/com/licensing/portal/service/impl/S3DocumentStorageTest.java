@@ -0,0 +1,151 @@
+package com.licensing.portal.service.impl;
+
+import com.licensing.portal.config.DocumentStorageConfig;
+import com.licensing.portal.service.DocumentStorage;
+import com.licensing.portal.service.FileDownloadService;
+import com.licensing.portal.support.FakeS3Server;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * S3DocumentStorage, configured as DocumentStorageConfig does for MinIO, against an
+ * in-process S3 stand-in.
+ */
+class S3DocumentStorageTest {
+
+    private static final String BUCKET = "licensing-documents";
+    private static final String KEY = "blobs/ab/cd/abcd";
+
+    @TempDir
+    Path tempDir;
+
+    private FakeS3Server s3;
+
+    private DocumentStorage storage;
+
+    private final byte[] content = new byte[100_000];
+
+    @BeforeEach
+    void setUp() throws IOException {
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 7);
+        }
+        s3 = new FakeS3Server();
+        storage = new DocumentStorageConfig().s3DocumentStorage(BUCKET, "us-east-1", s3.endpoint().toString(),
+                "test-access-key", "test-secret-key");
+    }
+
+    @AfterEach
+    void tearDown() {
+        s3.close();
+    }
+
+    @Test
+    void putStoresTheFileAndRemovesTheLocalCopy() throws IOException {
+        Path source = tempFile();
+
+        storage.put(KEY, source);
+
+        assertThat(s3.contains(BUCKET, KEY)).isTrue();
+        assertThat(Files.exists(source)).isFalse();
+        assertThat(storage.exists(KEY)).isTrue();
+        assertThat(storage.size(KEY)).isEqualTo(content.length);
+        try (InputStream in = storage.get(KEY)) {
+            assertThat(in.readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void missingObjectDoesNotExist() throws IOException {
+        assertThat(storage.exists("blobs/00/00/missing")).isFalse();
+    }
+
+    @Test
+    void readsARange() throws IOException {
+        storage.put(KEY, tempFile());
+
+        try (InputStream in = storage.getRange(KEY, 1000, 1999)) {
+            assertThat(in.readAllBytes()).isEqualTo(Arrays.copyOfRange(content, 1000, 2000));
+        }
+    }
+
+    @Test
+    void moveCopiesAndDeletesTheOriginal() throws IOException {
+        storage.put(KEY, tempFile());
+
+        storage.move(KEY, KEY + ".deleted-1");
+
+        assertThat(storage.exists(KEY)).isFalse();
+        assertThat(storage.exists(KEY + ".deleted-1")).isTrue();
+        assertThat(s3.objectCount()).isEqualTo(1);
+    }
+
+    @Test
+    void deleteRemovesTheObject() throws IOException {
+        storage.put(KEY, tempFile());
+
+        storage.delete(KEY);
+
+        assertThat(storage.exists(KEY)).isFalse();
+        assertThat(storage.localFile(KEY)).isEmpty();
+    }
+
+    @Test
+    void presignedUrlDownloadsTheObjectAsAnAttachment() throws IOException {
+        storage.put(KEY, tempFile());
+
+        URI url = storage.presignedDownloadUrl(KEY, "licence.pdf", "application/pdf", Duration.ofMinutes(5))
+                .orElseThrow();
+
+        assertThat(url.toString()).startsWith(s3.endpoint() + "/" + BUCKET + "/" + KEY)
+                .contains("X-Amz-Signature=")
+                .contains("X-Amz-Expires=300");
+        HttpURLConnection connection = (HttpURLConnection) url.toURL().openConnection();
+        try (InputStream in = connection.getInputStream()) {
+            assertThat(connection.getResponseCode()).isEqualTo(200);
+            assertThat(connection.getHeaderField(HttpHeaders.CONTENT_DISPOSITION))
+                    .startsWith("attachment")
+                    .contains("licence.pdf");
+            assertThat(in.readAllBytes()).isEqualTo(content);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Test
+    void downloadStreamsARangeFromTheBucket() throws IOException {
+        storage.put(KEY, tempFile());
+        FileDownloadService downloads = new FileDownloadService();
+        ReflectionTestUtils.setField(downloads, "storage", storage);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/documents/1/download");
+        request.addHeader(HttpHeaders.RANGE, "bytes=50000-");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        downloads.serve(KEY, -1, -1, "application/pdf", "licence.pdf", "\"abcd\"", request, response);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 50000-99999/100000");
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(content, 50000, 100000));
+    }
+
+    private Path tempFile() throws IOException {
+        return Files.write(Files.createTempFile(tempDir, "upload-", ".tmp"), content);
+    }
+}
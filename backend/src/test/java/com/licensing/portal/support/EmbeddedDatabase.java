@@ -0,0 +1,73 @@
+package com.licensing.portal.support;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * One embedded PostgreSQL per test JVM, shared by every application context the
+ * tests start (contexts of a multi-node test point at the same database).
+ */
+public final class EmbeddedDatabase {
+
+    private static EmbeddedPostgres postgres;
+
+    private EmbeddedDatabase() {
+    }
+
+    public static synchronized String jdbcUrl() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.builder().start();
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not start embedded PostgreSQL", ex);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    postgres.close();
+                } catch (IOException ignored) {
+                    // JVM is exiting anyway
+                }
+            }));
+        }
+        return postgres.getJdbcUrl("postgres", "postgres");
+    }
+
+    public static void register(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", EmbeddedDatabase::jdbcUrl);
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    // Same settings as command-line arguments, for contexts started with SpringApplicationBuilder
+    public static String[] arguments() {
+        return new String[] {
+                "--spring.datasource.url=" + jdbcUrl(),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password="
+        };
+    }
+
+    // Arguments for an empty database of the given name on the same server, (re)created
+    // now, for tests of what the application does on a schema it has never seen
+    public static synchronized String[] emptyDatabaseArguments(String name) {
+        jdbcUrl();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("DROP DATABASE IF EXISTS " + name);
+            statement.execute("CREATE DATABASE " + name);
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Could not create database " + name, ex);
+        }
+        return new String[] {
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", name),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password="
+        };
+    }
+}
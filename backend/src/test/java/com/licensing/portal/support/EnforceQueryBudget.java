@@ -0,0 +1,22 @@
+package com.licensing.portal.support;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fails a Spring test when any request it made ran more SQL statements than its
+ * query budget (query-budget.max-statements or the handler's @QueryBudget). Unlike
+ * query-budget.fail-on-exceed this also catches requests that failed for another
+ * reason, and requests whose exception the test expected.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@ExtendWith(QueryBudgetExtension.class)
+public @interface EnforceQueryBudget {
+}
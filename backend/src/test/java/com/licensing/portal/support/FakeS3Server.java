@@ -0,0 +1,204 @@
+package com.licensing.portal.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process stand-in for an S3-compatible server with path-style addressing: enough
+ * of PUT (plain, aws-chunked and copy), HEAD, GET with Range and DELETE for
+ * S3DocumentStorage. Signatures are not checked.
+ */
+public class FakeS3Server implements AutoCloseable {
+
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d*)");
+
+    // "bucket/key" -> content
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+
+    private final HttpServer server;
+
+    public FakeS3Server() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public URI endpoint() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    public boolean contains(String bucket, String key) {
+        return objects.containsKey(bucket + "/" + key);
+    }
+
+    public int objectCount() {
+        return objects.size();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = URLDecoder.decode(exchange.getRequestURI().getRawPath().substring(1), StandardCharsets.UTF_8);
+            switch (exchange.getRequestMethod()) {
+                case "PUT" -> put(exchange, path);
+                case "HEAD" -> head(exchange, path);
+                case "GET" -> get(exchange, path);
+                case "DELETE" -> {
+                    objects.remove(path);
+                    exchange.sendResponseHeaders(204, -1);
+                }
+                default -> exchange.sendResponseHeaders(405, -1);
+            }
+        }
+    }
+
+    private void put(HttpExchange exchange, String path) throws IOException {
+        String copySource = exchange.getRequestHeaders().getFirst("x-amz-copy-source");
+        if (copySource != null) {
+            String source = URLDecoder.decode(copySource, StandardCharsets.UTF_8);
+            byte[] content = objects.get(source.startsWith("/") ? source.substring(1) : source);
+            if (content == null) {
+                noSuchKey(exchange, true);
+                return;
+            }
+            objects.put(path, content);
+            xml(exchange, 200, "<CopyObjectResult><ETag>\"" + etag(content) + "\"</ETag>"
+                    + "<LastModified>2024-01-01T00:00:00.000Z</LastModified></CopyObjectResult>");
+            return;
+        }
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        if (exchange.getRequestHeaders().containsKey("x-amz-decoded-content-length")) {
+            body = decodeChunked(body);
+        }
+        objects.put(path, body);
+        exchange.getResponseHeaders().add("ETag", "\"" + etag(body) + "\"");
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    private void head(HttpExchange exchange, String path) throws IOException {
+        byte[] content = objects.get(path);
+        if (content == null) {
+            noSuchKey(exchange, false);
+            return;
+        }
+        exchange.getResponseHeaders().add("ETag", "\"" + etag(content) + "\"");
+        exchange.getResponseHeaders().add("Content-Length", String.valueOf(content.length));
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    private void get(HttpExchange exchange, String path) throws IOException {
+        byte[] content = objects.get(path);
+        if (content == null) {
+            noSuchKey(exchange, true);
+            return;
+        }
+        String disposition = queryParameter(exchange, "response-content-disposition");
+        if (disposition != null) {
+            exchange.getResponseHeaders().add("Content-Disposition", disposition);
+        }
+        exchange.getResponseHeaders().add("ETag", "\"" + etag(content) + "\"");
+
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        Matcher matcher = range != null ? RANGE.matcher(range) : null;
+        if (matcher != null && matcher.matches()) {
+            int start = Integer.parseInt(matcher.group(1));
+            int end = matcher.group(2).isEmpty()
+                    ? content.length - 1
+                    : Math.min(Integer.parseInt(matcher.group(2)), content.length - 1);
+            byte[] part = Arrays.copyOfRange(content, start, end + 1);
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + end + "/" + content.length);
+            send(exchange, 206, part);
+            return;
+        }
+        send(exchange, 200, content);
+    }
+
+    private void noSuchKey(HttpExchange exchange, boolean withBody) throws IOException {
+        if (withBody) {
+            xml(exchange, 404, "<Error><Code>NoSuchKey</Code><Message>The specified key does not exist.</Message></Error>");
+        } else {
+            exchange.sendResponseHeaders(404, -1);
+        }
+    }
+
+    private static void xml(HttpExchange exchange, int status, String body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/xml");
+        send(exchange, status, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // aws-chunked: "<hex size>;chunk-signature=...\r\n<data>\r\n" ... "0;...\r\n" [trailers]
+    private static byte[] decodeChunked(byte[] body) {
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        int position = 0;
+        while (position < body.length) {
+            int lineEnd = indexOfCrLf(body, position);
+            String header = new String(body, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.split(";")[0].trim(), 16);
+            if (size == 0) {
+                break;
+            }
+            decoded.write(body, lineEnd + 2, size);
+            position = lineEnd + 2 + size + 2;
+        }
+        return decoded.toByteArray();
+    }
+
+    private static int indexOfCrLf(byte[] body, int from) {
+        for (int i = from; i < body.length - 1; i++) {
+            if (body[i] == '\r' && body[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return body.length;
+    }
+
+    private static String queryParameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0 && pair.substring(0, equals).equals(name)) {
+                return URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    // S3 ETags of single-part uploads are the MD5 of the content; the SDK checks this on PUT
+    private static String etag(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.licensing.portal.support;
+
+import com.licensing.portal.monitoring.QueryBudgetFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Compares the over-budget request counters of the test's application context
+ * before and after each test. Used through {@link EnforceQueryBudget}.
+ */
+public class QueryBudgetExtension implements BeforeEachCallback, AfterEachCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(QueryBudgetExtension.class);
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        context.getStore(NAMESPACE).put("before", overBudgetRequests(context));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void afterEach(ExtensionContext context) {
+        Map<String, Double> before = context.getStore(NAMESPACE).get("before", Map.class);
+        Map<String, Double> exceeded = new TreeMap<>();
+        overBudgetRequests(context).forEach((request, count) -> {
+            double added = count - before.getOrDefault(request, 0d);
+            if (added > 0) {
+                exceeded.put(request, added);
+            }
+        });
+        if (!exceeded.isEmpty()) {
+            fail("Requests over their SQL statement budget (see the QueryBudgetFilter warnings): "
+                    + exceeded.entrySet().stream()
+                            .map(entry -> entry.getKey() + " x" + entry.getValue().intValue())
+                            .collect(Collectors.joining(", ")));
+        }
+    }
+
+    // "METHOD uri" -> over-budget requests so far
+    private static Map<String, Double> overBudgetRequests(ExtensionContext context) {
+        MeterRegistry registry = SpringExtension.getApplicationContext(context).getBean(MeterRegistry.class);
+        Map<String, Double> counts = new TreeMap<>();
+        for (Counter counter : registry.find(QueryBudgetFilter.OVER_BUDGET_METRIC).counters()) {
+            counts.merge(counter.getId().getTag("method") + " " + counter.getId().getTag("uri"),
+                    counter.count(), Double::sum);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,28 @@
+package com.licensing.portal.support;
+
+import com.licensing.portal.monitoring.RequestQueryStats;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MockMvc matchers on the SQL statements a request ran, for handlers whose cost
+ * should stay well below the general query budget.
+ */
+public final class QueryBudgetMatchers {
+
+    private QueryBudgetMatchers() {
+    }
+
+    public static ResultMatcher sqlStatementsAtMost(int max) {
+        return result -> {
+            RequestQueryStats stats = (RequestQueryStats) result.getRequest()
+                    .getAttribute(RequestQueryStats.REQUEST_ATTRIBUTE);
+            assertThat(stats).as("query stats of the request").isNotNull();
+            assertThat(stats.getStatements())
+                    .as("SQL statements of %s %s", result.getRequest().getMethod(),
+                            result.getRequest().getRequestURI())
+                    .isLessThanOrEqualTo(max);
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package com.licensing.portal.support;
+
+import com.licensing.portal.model.Store;
+import com.licensing.portal.model.Task;
+import com.licensing.portal.model.User;
+import com.licensing.portal.repository.StoreRepository;
+import com.licensing.portal.repository.TaskRepository;
+import com.licensing.portal.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates the rows the integration tests need and empties the database between tests.
+ */
+public class TestData {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    // Stores need a unique 12-digit INN
+    private final AtomicLong nextInn = new AtomicLong(770000000000L);
+
+    // In-memory caches built from these tables (unread counts, expiry index, user
+    // cache) are not reset here; tests that read them rebuild or invalidate them
+    public void clean() {
+        List<String> tables = jdbcTemplate.queryForList(
+                "SELECT tablename FROM pg_tables WHERE schemaname = 'public'", String.class);
+        if (!tables.isEmpty()) {
+            jdbcTemplate.execute("TRUNCATE TABLE " + String.join(", ", tables) + " CASCADE");
+        }
+    }
+
+    public User user(String username, String... roles) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPasswordHash("not-used");
+        user.setEmail(username + "@example.com");
+        user.setFullName("User " + username);
+        user.setRoles(new HashSet<>(Set.of(roles)));
+        user.setIsActive(true);
+        return userRepository.save(user);
+    }
+
+    public Store store(String name) {
+        Store store = new Store();
+        store.setName(name);
+        store.setAddress("Address of " + name);
+        store.setInn(String.valueOf(nextInn.incrementAndGet()));
+        store.setIsActive(true);
+        return storeRepository.save(store);
+    }
+
+    public Task task(String title, Store store, User assignee, User createdBy, LocalDate deadline) {
+        return taskRepository.save(newTask(title, store, assignee, createdBy, deadline));
+    }
+
+    public Task subtask(Task parent, String title, User assignee) {
+        Task subtask = newTask(title, parent.getStore(), assignee, parent.getCreatedBy(), parent.getDeadlineDate());
+        subtask.setParentTask(parent);
+        subtask.setSubtaskType(Task.SubtaskType.DOCUMENT_UPLOAD);
+        return taskRepository.save(subtask);
+    }
+
+    private Task newTask(String title, Store store, User assignee, User createdBy, LocalDate deadline) {
+        Task task = new Task();
+        task.setTitle(title);
+        task.setLicenseType(Task.LicenseType.ALCOHOL);
+        task.setActionType(Task.ActionType.RENEWAL);
+        task.setStatus(Task.TaskStatus.ASSIGNED);
+        task.setStore(store);
+        task.setAssignee(assignee);
+        task.setCreatedBy(createdBy);
+        task.setDeadlineDate(deadline);
+        return task;
+    }
+}
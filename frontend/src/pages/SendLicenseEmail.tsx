@@ -29,7 +29,7 @@ const SendLicenseEmail: React.FC = () => {
                     'Content-Type': 'multipart/form-data',
                 },
             });
-            message.success('Письмо успешно отправлено');
+            message.success('Письмо поставлено в очередь на отправку');
             navigate('/tasks');
         } catch (error) {
             message.error('Ошибка отправки письма');
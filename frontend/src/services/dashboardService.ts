@@ -0,0 +1,14 @@
+import api from './api';
+import type { DashboardSummary, ManagerWorkload } from '../types';
+
+export const dashboardService = {
+    async getWorkload(): Promise<ManagerWorkload[]> {
+        const response = await api.get<ManagerWorkload[]>('/dashboard/workload');
+        return response.data;
+    },
+
+    async getSummary(): Promise<DashboardSummary> {
+        const response = await api.get<DashboardSummary>('/dashboard/summary');
+        return response.data;
+    },
+};
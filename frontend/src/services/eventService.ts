@@ -0,0 +1,86 @@
+import api from './api';
+import type { TaskStatus } from '../types';
+
+export interface TaskChangedEvent {
+    taskId: number;
+    title: string;
+    status: TaskStatus;
+}
+
+export interface EventHandlers {
+    onNotificationCount?: (unread: number) => void;
+    onTaskChanged?: (event: TaskChangedEvent) => void;
+    // Missed events could not be replayed; reload whatever the page shows
+    onResync?: () => void;
+}
+
+// Wait before reopening a stream the server refused
+const REOPEN_DELAY_MS = 5000;
+
+// Subscribes to the server push stream. EventSource cannot send headers, so the
+// stream is opened with a short-lived token from /events/token instead of the login
+// token. EventSource reconnects on its own and resumes with Last-Event-ID; once the
+// token has expired the server refuses that, and the stream is reopened with a fresh
+// token from the last event seen. Call the returned function to close the stream.
+export const eventService = {
+    subscribe(handlers: EventHandlers): () => void {
+        const baseUrl = import.meta.env.VITE_API_URL || '/api';
+        let source: EventSource | null = null;
+        let lastEventId: string | null = null;
+        let reopenTimer: ReturnType<typeof setTimeout> | undefined;
+        let closed = false;
+
+        const track = (event: Event) => {
+            const id = (event as MessageEvent).lastEventId;
+            if (id) {
+                lastEventId = id;
+            }
+        };
+
+        const open = async () => {
+            let stream: EventSource;
+            try {
+                const response = await api.post<{ token: string }>('/events/token');
+                if (closed) {
+                    return;
+                }
+                const params = new URLSearchParams({ access_token: response.data.token });
+                if (lastEventId) {
+                    params.set('lastEventId', lastEventId);
+                }
+                stream = new EventSource(`${baseUrl}/events?${params}`);
+            } catch {
+                reopenTimer = setTimeout(open, REOPEN_DELAY_MS);
+                return;
+            }
+
+            source = stream;
+            stream.addEventListener('notification-count', (event) => {
+                track(event);
+                handlers.onNotificationCount?.(JSON.parse((event as MessageEvent).data).unread);
+            });
+            stream.addEventListener('task-changed', (event) => {
+                track(event);
+                handlers.onTaskChanged?.(JSON.parse((event as MessageEvent).data));
+            });
+            stream.addEventListener('resync', (event) => {
+                track(event);
+                handlers.onResync?.();
+            });
+            stream.onerror = () => {
+                // CLOSED means the browser gave up reconnecting, e.g. on a 401
+                if (!closed && stream.readyState === EventSource.CLOSED) {
+                    reopenTimer = setTimeout(open, REOPEN_DELAY_MS);
+                }
+            };
+        };
+
+        open();
+
+        return () => {
+            closed = true;
+            clearTimeout(reopenTimer);
+            source?.close();
+        };
+    },
+};
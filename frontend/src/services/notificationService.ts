@@ -0,0 +1,23 @@
+import api from './api';
+import type { NotificationItem } from '../types';
+
+export const notificationService = {
+    async getNotifications(unreadOnly = false, size?: number): Promise<NotificationItem[]> {
+        const response = await api.get<NotificationItem[]>('/notifications', { params: { unreadOnly, size } });
+        return response.data;
+    },
+
+    async getUnreadCount(): Promise<number> {
+        const response = await api.get<{ unread: number }>('/notifications/unread-count');
+        return response.data.unread;
+    },
+
+    async markRead(id: number): Promise<void> {
+        await api.put(`/notifications/${id}/read`);
+    },
+
+    async markAllRead(): Promise<number> {
+        const response = await api.put<{ updated: number }>('/notifications/read-all');
+        return response.data.updated;
+    },
+};
@@ -0,0 +1,11 @@
+import api from './api';
+import type { SearchResponse, SearchResultType } from '../types';
+
+export const searchService = {
+    async search(q: string, types?: SearchResultType[], page?: number, size?: number): Promise<SearchResponse> {
+        const response = await api.get<SearchResponse>('/search', {
+            params: { q, types: types?.join(','), page, size },
+        });
+        return response.data;
+    },
+};
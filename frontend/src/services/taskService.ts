@@ -1,5 +1,5 @@
 import api from './api';
-import type { Task, TaskRequest } from '../types';
+import type { Task, TaskPage, TaskPageFilter, TaskRequest } from '../types';
 
 export const taskService = {
     async getAllTasks(): Promise<Task[]> {
@@ -7,6 +7,13 @@ export const taskService = {
         return response.data;
     },
 
+    async getTaskPage(filter: TaskPageFilter = {}, cursor?: string, size?: number): Promise<TaskPage> {
+        const response = await api.get<TaskPage>('/tasks/page', {
+            params: { ...filter, cursor, size },
+        });
+        return response.data;
+    },
+
     async getTaskById(id: number): Promise<Task> {
         const response = await api.get<Task>(`/tasks/${id}`);
         return response.data;
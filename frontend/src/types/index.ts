@@ -84,6 +84,51 @@ export interface Task {
     subtasks?: Task[];
 }
 
+export interface TaskPage {
+    items: Task[];
+    nextCursor?: string;
+    hasMore: boolean;
+    size: number;
+}
+
+export interface TaskPageFilter {
+    status?: TaskStatus;
+    licenseType?: LicenseType;
+    actionType?: ActionType;
+    storeId?: number;
+    assigneeId?: number;
+    deadlineFrom?: string;
+    deadlineTo?: string;
+}
+
+export interface NotificationItem {
+    id: number;
+    taskId?: number;
+    message: string;
+    type: string;
+    isRead: boolean;
+    createdAt: string;
+}
+
+export type SearchResultType = 'TASK' | 'STORE' | 'DOCUMENT';
+
+export interface SearchResult {
+    type: SearchResultType;
+    id: number;
+    taskId?: number;
+    title: string;
+    snippet?: string;
+    rank: number;
+}
+
+export interface SearchResponse {
+    query: string;
+    items: SearchResult[];
+    page: number;
+    size: number;
+    hasMore: boolean;
+}
+
 export interface TaskRequest {
     title: string;
     description?: string;
@@ -149,3 +194,22 @@ export interface Payment {
     createdAt: string;
     updatedAt?: string;
 }
+
+export interface ManagerWorkload {
+    userId: number;
+    username: string;
+    fullName?: string;
+    taskCount: number;
+    tasksByStatus: Record<string, number>;
+    overdueCount: number;
+}
+
+export interface DashboardSummary {
+    totalTasks: number;
+    overdueTasks: number;
+    tasksByStatus: Record<string, number>;
+    tasksByLicenseType: Record<string, number>;
+    paymentsByStatus: Record<string, number>;
+    paymentAmountsByStatus: Record<string, number>;
+    generatedAt: string;
+}